@@ -0,0 +1,21 @@
+package com.weather.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {}
+
+    static byte[] london() {
+        try (InputStream in = BenchmarkPayloads.class.getClassLoader().getResourceAsStream("openweather-london.json")) {
+            if (in == null) {
+                throw new IllegalStateException("openweather-london.json not found on classpath");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
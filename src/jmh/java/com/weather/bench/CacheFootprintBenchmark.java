@@ -0,0 +1,68 @@
+package com.weather.bench;
+
+import com.weather.api.CacheType;
+import com.weather.core.WeatherCache;
+import com.weather.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per cached location. Each run fills a fresh cache with {@code entries} parsed responses, as
+ * the client would, and reports the heap growth after a full GC as the {@code bytesPerEntry} counter.
+ * The timing itself is irrelevant; run single-threaded. The filled cache is kept reachable until the next
+ * run starts, so it cannot be collected before the second heap reading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// Event counters are summed over iterations, so a single measured iteration reports bytes per entry directly
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class CacheFootprintBenchmark {
+
+    @Param({"LRU", "CONCURRENT", "COMPACT"})
+    public CacheType cacheType;
+
+    @Param({"100000"})
+    public int entries;
+
+    private byte[] payload;
+    private WeatherCache retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerEntry;
+    }
+
+    @Setup
+    public void setup() {
+        payload = BenchmarkPayloads.london();
+    }
+
+    @Benchmark
+    public WeatherCache fill(Footprint footprint) throws Exception {
+        retained = null;
+        long before = usedHeapAfterGc();
+        WeatherCache cache = WeatherCache.create(cacheType, entries, 60);
+        for (int i = 0; i < entries; i++) {
+            cache.put("city-" + i, JsonUtils.parseWeather(payload));
+        }
+        retained = cache;
+        footprint.bytesPerEntry = (usedHeapAfterGc() - before) / entries;
+        return cache;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,87 @@
+package com.weather.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.WeatherData;
+import com.weather.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParseBenchmark {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private byte[] bytes;
+    private String string;
+
+    @Setup
+    public void setup() {
+        bytes = BenchmarkPayloads.london();
+        string = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WeatherData streamingBytes() throws Exception {
+        return JsonUtils.parseWeather(bytes);
+    }
+
+    @Benchmark
+    public WeatherData streamingInputStream() throws Exception {
+        return JsonUtils.parseWeather(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public WeatherData streamingString() throws Exception {
+        return JsonUtils.parseWeather(string);
+    }
+
+    // Previous JsonUtils.parseWeather: body decoded to a String, full JsonNode tree, repeated lookups
+    @Benchmark
+    public WeatherData treeFromBytes() throws Exception {
+        return parseTree(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static WeatherData parseTree(String json) throws Exception {
+        JsonNode node = mapper.readTree(json);
+
+        var weather = new WeatherData.Weather(
+                node.get("weather").get(0).get("main").asText(),
+                node.get("weather").get(0).get("description").asText()
+        );
+
+        var temperature = new WeatherData.Temperature(
+                node.get("main").get("temp").asDouble(),
+                node.get("main").get("feels_like").asDouble()
+        );
+
+        var wind = new WeatherData.Wind(
+                node.get("wind").get("speed").asDouble()
+        );
+
+        var sys = new WeatherData.Sys(
+                node.get("sys").get("sunrise").asLong(),
+                node.get("sys").get("sunset").asLong()
+        );
+
+        return new WeatherData(
+                weather,
+                temperature,
+                node.get("visibility").asInt(),
+                wind,
+                node.get("dt").asLong(),
+                sys,
+                node.get("timezone").asInt(),
+                node.get("name").asText(),
+                node.get("id").asLong()
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.weather.bench;
+
+import com.weather.api.WeatherData;
+import com.weather.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWriteBenchmark {
+
+    private WeatherData data;
+
+    @Setup
+    public void setup() throws Exception {
+        data = JsonUtils.parseWeather(BenchmarkPayloads.london());
+    }
+
+    @Benchmark
+    public String toJson() throws Exception {
+        return JsonUtils.toJson(data);
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() throws Exception {
+        return JsonUtils.toJsonBytes(data);
+    }
+}
@@ -0,0 +1,202 @@
+package com.weather.bench;
+
+import com.weather.api.CacheType;
+import com.weather.api.WeatherSdkException;
+import com.weather.api.WorkMode;
+import com.weather.config.HttpTransportConfig;
+import com.weather.config.QuotaConfig;
+import com.weather.config.ResilienceConfig;
+import com.weather.config.WeatherApiConfig;
+import com.weather.config.WeatherSdkConfig;
+import com.weather.core.DefaultWeatherClient;
+import com.weather.core.Ticker;
+import com.weather.infra.HttpTransport;
+import com.weather.infra.OpenWeatherApi;
+import com.weather.infra.ResilientWeatherApi;
+import com.weather.infra.WeatherApi;
+import com.weather.metrics.DefaultWeatherMetrics;
+import com.weather.metrics.LatencyHistogram;
+import com.weather.metrics.LatencySnapshot;
+import com.weather.metrics.MetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of {@link DefaultWeatherClient} against {@link StubOpenWeatherServer}, over real HTTP
+ * and the full resilience stack. Worker threads request cities with Zipf-distributed popularity for a warm-up
+ * and a measured period, then throughput, latency percentiles, hit ratio and upstream calls are printed.
+ * <p>
+ * Settings are system properties ({@code -Dload.threads=64}); the client configuration not covered by them
+ * comes from the usual {@code WEATHER_*} environment variables:
+ * <pre>
+ * mvn -P jmh compile exec:java@load -Dload.mode=POLLING -Dload.threads=64
+ * </pre>
+ */
+public final class LoadTest {
+
+    private final int threads = Integer.getInteger("load.threads", 32);
+    private final int warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+    private final int durationSeconds = Integer.getInteger("load.durationSeconds", 20);
+    private final int cities = Integer.getInteger("load.cities", 10_000);
+    private final double zipfExponent = Double.parseDouble(System.getProperty("load.zipf", "1.0"));
+    private final double latencyMillis = Double.parseDouble(System.getProperty("load.latencyMillis", "80"));
+    private final double latencySigma = Double.parseDouble(System.getProperty("load.latencySigma", "0.5"));
+    private final double errorRate = Double.parseDouble(System.getProperty("load.errorRate", "0.01"));
+    private final double throttleRate = Double.parseDouble(System.getProperty("load.throttleRate", "0"));
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest();
+        String mode = System.getProperty("load.mode", "BOTH").toUpperCase();
+        List<WorkMode> modes = mode.equals("BOTH") ? List.of(WorkMode.values()) : List.of(WorkMode.valueOf(mode));
+
+        System.out.printf("Stub OpenWeather: %d cities, latency median %.0f ms (sigma %.2f), %.1f%% errors, "
+                        + "%.1f%% throttled%n", test.cities, test.latencyMillis, test.latencySigma,
+                test.errorRate * 100, test.throttleRate * 100);
+        try (StubOpenWeatherServer server = new StubOpenWeatherServer(test.cities, test.latencyMillis,
+                test.latencySigma, test.errorRate, test.throttleRate)) {
+            for (WorkMode m : modes) {
+                test.run(server, m);
+            }
+        }
+    }
+
+    private void run(StubOpenWeatherServer server, WorkMode mode) throws InterruptedException {
+        WeatherSdkConfig defaults = WeatherSdkConfig.defaults();
+        WeatherSdkConfig sdkConfig = defaults.toBuilder()
+                .cacheSize(Integer.getInteger("load.cacheSize", 2_000))
+                .ttlMinutes(Integer.getInteger("load.ttlMinutes", 1))
+                .workMode(mode)
+                .cities(List.of())
+                .cacheType(CacheType.valueOf(
+                        System.getProperty("load.cacheType", defaults.cacheType().name()).toUpperCase()))
+                // The stub has no plan limits; the client's own limiters would only measure themselves
+                .callsPerMinute(0)
+                .snapshotPath(null)
+                .snapshotIntervalMinutes(0)
+                .batchWindowMillis(Integer.getInteger("load.batchWindowMillis", defaults.batchWindowMillis()))
+                .build();
+        WeatherApiConfig apiConfig = new WeatherApiConfig("load-test", server.baseUrl(), "metric", "en");
+        DefaultWeatherMetrics metrics = new DefaultWeatherMetrics();
+        WeatherApi api = new OpenWeatherApi(apiConfig, metrics, new HttpTransport(HttpTransportConfig.defaults()));
+        ResilienceConfig resilience = ResilienceConfig.defaults();
+        if (resilience.enabled()) {
+            api = new ResilientWeatherApi(api, resilience, metrics);
+        }
+        DefaultWeatherClient client = new DefaultWeatherClient(apiConfig, api, sdkConfig, metrics, null,
+                Ticker.SYSTEM, QuotaConfig.unlimited());
+
+        System.out.printf("%n%s: %d threads, cache %s x %d, TTL %d min, Zipf exponent %.2f%n", mode, threads,
+                sdkConfig.cacheType(), sdkConfig.cacheSize(), sdkConfig.ttlMinutes(), zipfExponent);
+        try {
+            drive(client, TimeUnit.SECONDS.toNanos(warmupSeconds), null, new LongAdder());
+            MetricsSnapshot before = client.metrics();
+            long upstreamBefore = server.requests();
+            LatencyHistogram latency = new LatencyHistogram();
+            LongAdder failures = new LongAdder();
+            long start = System.nanoTime();
+            long ops = drive(client, TimeUnit.SECONDS.toNanos(durationSeconds), latency, failures);
+            long elapsed = System.nanoTime() - start;
+            report(ops, failures.sum(), elapsed, latency.snapshot(), before, client.metrics(),
+                    server.requests() - upstreamBefore);
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * Runs the workers for {@code nanos} and returns the number of completed requests; latencies are only
+     * recorded if {@code latency} is given.
+     */
+    private long drive(DefaultWeatherClient client, long nanos, LatencyHistogram latency, LongAdder failures)
+            throws InterruptedException {
+        ZipfSampler sampler = new ZipfSampler(cities, zipfExponent);
+        String[] names = new String[cities];
+        for (int i = 0; i < cities; i++) {
+            names[i] = "City" + i;
+        }
+
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + nanos;
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now = System.nanoTime();
+                while (now < deadline) {
+                    String city = names[sampler.sample(random.nextDouble())];
+                    try {
+                        client.getWeather(city);
+                    } catch (WeatherSdkException e) {
+                        failures.increment();
+                    }
+                    long end = System.nanoTime();
+                    if (latency != null) {
+                        latency.record(end - now);
+                    }
+                    ops.increment();
+                    now = end;
+                }
+            }, "load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum();
+    }
+
+    private static void report(long ops, long failures, long elapsedNanos, LatencySnapshot latency,
+                               MetricsSnapshot before, MetricsSnapshot after, long upstreamRequests) {
+        long hits = after.cacheHits() - before.cacheHits();
+        long lookups = hits + after.cacheMisses() - before.cacheMisses()
+                + after.cacheExpirations() - before.cacheExpirations();
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf("  requests      %,d in %.1f s (%,.0f/s), %,d failed%n",
+                ops, seconds, ops / seconds, failures);
+        System.out.printf("  latency       p50 %s  p99 %s  p999 %s  max %s%n", millis(latency.p50Nanos()),
+                millis(latency.p99Nanos()), millis(latency.p999Nanos()), millis(latency.maxNanos()));
+        System.out.printf("  hit ratio     %.2f%% of %,d lookups%n",
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups, lookups);
+        System.out.printf("  upstream      %,d requests (%.3f per client request), %,d coalesced waits, "
+                        + "%,d retries, %,d circuit openings%n",
+                upstreamRequests, ops == 0 ? 0.0 : (double) upstreamRequests / ops,
+                after.coalescedWaits() - before.coalescedWaits(), after.upstreamRetries() - before.upstreamRetries(),
+                after.circuitOpenings() - before.circuitOpenings());
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+
+    /**
+     * Rank {@code k} (0-based) is drawn with probability proportional to {@code 1 / (k + 1)^exponent}, so the
+     * lowest-numbered cities are the most popular. Sampling is a binary search over the cumulative weights.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+        }
+
+        /**
+         * @param uniform a uniform random number in {@code [0, 1)}
+         */
+        int sample(double uniform) {
+            int i = Arrays.binarySearch(cumulative, uniform * cumulative[cumulative.length - 1]);
+            return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.weather.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for OpenWeather's {@code /weather} and {@code /group} endpoints. It knows the cities
+ * {@code City0 .. City<n-1>} (IDs from {@link #FIRST_ID}) and answers with the recorded London payload renamed
+ * for each. Response delay is log-normal around a median; a share of calls fails with 500 or is throttled
+ * with 429. Delays are scheduled rather than slept, so slow responses do not pin server threads.
+ */
+final class StubOpenWeatherServer implements AutoCloseable {
+
+    static final long FIRST_ID = 1_000_000;
+
+    private static final byte[] NOT_FOUND = "{\"cod\":\"404\",\"message\":\"city not found\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVER_ERROR = "{\"cod\":500,\"message\":\"Internal error\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] THROTTLED = ("{\"cod\":429,\"message\":\"Your account is temporary blocked due to "
+            + "exceeding of requests limitation of your subscription type.\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final String[] payloads;
+    private final double latencyMedianMillis;
+    private final double latencySigma;
+    private final double errorRate;
+    private final double throttleRate;
+    private final HttpServer server;
+    private final ScheduledExecutorService responder;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param latencySigma spread of the log-normal delay; {@code 0} answers every call after exactly the median
+     * @param errorRate    share of calls answered with 500
+     * @param throttleRate share of calls answered with 429
+     */
+    StubOpenWeatherServer(int cities, double latencyMedianMillis, double latencySigma, double errorRate,
+                          double throttleRate) throws IOException {
+        this.latencyMedianMillis = latencyMedianMillis;
+        this.latencySigma = latencySigma;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+
+        String london = new String(BenchmarkPayloads.london(), StandardCharsets.UTF_8);
+        this.payloads = new String[cities];
+        for (int i = 0; i < cities; i++) {
+            payloads[i] = london.replace("\"id\":2643743,\"name\":\"London\"",
+                    "\"id\":" + (FIRST_ID + i) + ",\"name\":\"City" + i + "\"");
+        }
+
+        AtomicInteger ids = new AtomicInteger();
+        this.responder = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "stub-openweather-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/data/2.5/", this::handle);
+        server.setExecutor(responder);
+        server.start();
+    }
+
+    /**
+     * The {@code /weather} URL to configure the client with.
+     */
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + "/data/2.5/weather";
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long throttled() {
+        return throttled.sum();
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMicros = (long) (latencyMedianMillis * 1000 * Math.exp(latencySigma * random.nextGaussian()));
+
+        int status;
+        byte[] body;
+        double roll = random.nextDouble();
+        if (roll < throttleRate) {
+            throttled.increment();
+            status = 429;
+            body = THROTTLED;
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        } else if (roll < throttleRate + errorRate) {
+            errors.increment();
+            status = 500;
+            body = SERVER_ERROR;
+        } else {
+            body = respond(exchange.getRequestURI().getPath(), exchange.getRequestURI().getRawQuery());
+            status = body != null ? 200 : 404;
+            body = body != null ? body : NOT_FOUND;
+        }
+
+        int finalStatus = status;
+        byte[] finalBody = body;
+        responder.schedule(() -> send(exchange, finalStatus, finalBody), delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private byte[] respond(String path, String query) {
+        String q = param(query, "q");
+        String id = param(query, "id");
+        if (path.endsWith("/group") && id != null) {
+            StringBuilder list = new StringBuilder();
+            int count = 0;
+            for (String part : id.split(",")) {
+                String payload = payload(indexOfId(part));
+                if (payload != null) {
+                    list.append(count++ > 0 ? "," : "").append(payload);
+                }
+            }
+            return ("{\"cnt\":" + count + ",\"list\":[" + list + "]}").getBytes(StandardCharsets.UTF_8);
+        }
+        String payload = q != null ? payload(indexOfName(q)) : id != null ? payload(indexOfId(id)) : null;
+        return payload != null ? payload.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private String payload(int index) {
+        return index >= 0 && index < payloads.length ? payloads[index] : null;
+    }
+
+    private static int indexOfName(String name) {
+        String city = name.split(",")[0].trim();
+        if (!city.regionMatches(true, 0, "City", 0, 4)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(city.substring(4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int indexOfId(String id) {
+        try {
+            return (int) (Long.parseLong(id.trim()) - FIRST_ID);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String param(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            out.write(body);
+        } catch (IOException e) {
+            // The client gave up on the call; nothing left to answer
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.weather.bench;
+
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.infra.WeatherApi;
+import com.weather.util.FutureUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class StubWeatherApi implements WeatherApi {
+
+    private final WeatherData template;
+    private final Executor delayed;
+    private final LongAdder calls = new LongAdder();
+
+    StubWeatherApi(WeatherData template, long latencyMicros) {
+        this.template = template;
+        this.delayed = latencyMicros > 0
+                ? CompletableFuture.delayedExecutor(latencyMicros, TimeUnit.MICROSECONDS)
+                : Runnable::run;
+    }
+
+    @Override
+    public WeatherData getWeather(String city) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(city), "stub weather");
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        calls.increment();
+        return CompletableFuture.supplyAsync(() -> withName(city), delayed);
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    private WeatherData withName(String city) {
+        return new WeatherData(template.weather(), template.temperature(), template.visibility(), template.wind(),
+                template.datetime(), template.sys(), template.timezone(), city, template.id());
+    }
+}
@@ -0,0 +1,68 @@
+package com.weather.bench;
+
+import com.weather.api.CacheType;
+import com.weather.api.WeatherData;
+import com.weather.core.WeatherCache;
+import com.weather.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class WeatherCacheBenchmark {
+
+    @Param({"LRU", "CONCURRENT", "COMPACT"})
+    public CacheType cacheType;
+
+    @Param({"1024"})
+    public int cacheSize;
+
+    private WeatherCache cache;
+    private WeatherData data;
+    private String[] hitKeys;
+    private String[] missKeys;
+
+    @Setup
+    public void setup() throws Exception {
+        data = JsonUtils.parseWeather(BenchmarkPayloads.london());
+        cache = WeatherCache.create(cacheType, cacheSize, 60);
+
+        hitKeys = new String[cacheSize];
+        for (int i = 0; i < cacheSize; i++) {
+            hitKeys[i] = "city-" + i;
+            cache.put(hitKeys[i], data);
+        }
+        // Miss-heavy: a key space 16x the capacity, so most lookups miss and trigger a put plus eviction
+        missKeys = new String[cacheSize * 16];
+        for (int i = 0; i < missKeys.length; i++) {
+            missKeys[i] = "city-" + i;
+        }
+    }
+
+    @Benchmark
+    public WeatherData hitHeavy() {
+        return cache.get(hitKeys[ThreadLocalRandom.current().nextInt(hitKeys.length)]);
+    }
+
+    @Benchmark
+    public WeatherData missHeavy() {
+        String key = missKeys[ThreadLocalRandom.current().nextInt(missKeys.length)];
+        WeatherData cached = cache.get(key);
+        if (cached == null) {
+            cache.put(key, data);
+            return data;
+        }
+        return cached;
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(hitKeys[ThreadLocalRandom.current().nextInt(hitKeys.length)], data);
+    }
+}
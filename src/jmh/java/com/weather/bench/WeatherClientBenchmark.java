@@ -0,0 +1,72 @@
+package com.weather.bench;
+
+import com.weather.api.CacheType;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.api.WorkMode;
+import com.weather.config.WeatherApiConfig;
+import com.weather.config.WeatherSdkConfig;
+import com.weather.core.DefaultWeatherClient;
+import com.weather.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class WeatherClientBenchmark {
+
+    @Param({"LRU", "CONCURRENT"})
+    public CacheType cacheType;
+
+    @Param({"0", "1000"})
+    public long upstreamLatencyMicros;
+
+    // Cities requested vs. cache capacity: 64 fits entirely, 4096 keeps missing
+    @Param({"64", "4096"})
+    public int cities;
+
+    @Param({"256"})
+    public int cacheSize;
+
+    private DefaultWeatherClient client;
+    private String[] names;
+
+    @Setup
+    public void setup() throws Exception {
+        WeatherData template = JsonUtils.parseWeather(BenchmarkPayloads.london());
+        StubWeatherApi api = new StubWeatherApi(template, upstreamLatencyMicros);
+        WeatherSdkConfig sdkConfig = WeatherSdkConfig.builder()
+                .cacheSize(cacheSize)
+                .ttlMinutes(60)
+                .workMode(WorkMode.ON_DEMAND)
+                .cities(List.of())
+                .cacheType(cacheType)
+                .pollingThreads(1)
+                .callsPerMinute(0)
+                .build();
+        client = new DefaultWeatherClient(new WeatherApiConfig("bench", "http://localhost", "metric", "en"),
+                api, sdkConfig);
+
+        names = new String[cities];
+        for (int i = 0; i < cities; i++) {
+            names[i] = "City" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public WeatherData getWeather() throws WeatherSdkException {
+        return client.getWeather(names[ThreadLocalRandom.current().nextInt(names.length)]);
+    }
+}
@@ -18,12 +18,17 @@ public class Main {
                 .cacheSize(sdkConfig.cacheSize())
                 .build();
 
-        for (String city : sdkConfig.cities()) {
-            System.out.printf("Requesting weather for city: %s%n", city);
+        System.out.printf("Requesting weather for cities: %s%n", sdkConfig.cities());
 
-            WeatherData data = client.getWeather(city);
-            System.out.println(JsonUtils.toJson(data));
+        WeatherBatchResult batch = client.getWeather(sdkConfig.cities());
+        for (var e : batch.results().entrySet()) {
+            System.out.printf("Weather for city: %s%n", e.getKey());
+            System.out.println(JsonUtils.toJson(e.getValue()));
+        }
+        batch.failures().forEach((city, error) ->
+                System.out.printf("Failed to load weather for %s: %s%n", city, error.getMessage()));
 
+        for (String city : batch.results().keySet()) {
             WeatherData again = client.getWeather(city);
             System.out.println("Repeated call (should be cached):");
             System.out.println(JsonUtils.toJson(again));
@@ -37,6 +42,7 @@ public class Main {
             System.out.println("ON_DEMAND mode – polling disabled, exiting immediately.");
         }
 
+        System.out.println("Metrics: " + client.metrics());
         client.close();
     }
 }
@@ -0,0 +1,7 @@
+package com.weather.api;
+
+public enum CacheType {
+    LRU,
+    CONCURRENT,
+    COMPACT
+}
@@ -0,0 +1,22 @@
+package com.weather.api;
+
+public sealed interface Location permits Location.City, Location.CityId, Location.Coordinates {
+
+    static Location city(String name) {
+        return new City(name);
+    }
+
+    static Location id(long id) {
+        return new CityId(id);
+    }
+
+    static Location coordinates(double lat, double lon) {
+        return new Coordinates(lat, lon);
+    }
+
+    record City(String name) implements Location {}
+
+    record CityId(long id) implements Location {}
+
+    record Coordinates(double lat, double lon) implements Location {}
+}
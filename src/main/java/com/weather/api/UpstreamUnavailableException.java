@@ -0,0 +1,19 @@
+package com.weather.api;
+
+import java.time.Duration;
+
+/**
+ * Thrown without contacting OpenWeather while the circuit breaker is open or the API has asked us to back off.
+ */
+public class UpstreamUnavailableException extends WeatherSdkException {
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.weather.api;
+
+import java.util.Map;
+
+public record WeatherBatchResult(
+        Map<String, WeatherData> results,
+        Map<String, WeatherSdkException> failures
+) {
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -1,6 +1,38 @@
 package com.weather.api;
 
+import com.weather.core.WeatherHistory;
+import com.weather.metrics.MetricsSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
 public interface WeatherClient{
     WeatherData getWeather(String city) throws WeatherSdkException;
+    CompletableFuture<WeatherData> getWeatherAsync(String city);
+    WeatherData getWeather(Location location) throws WeatherSdkException;
+    CompletableFuture<WeatherData> getWeatherAsync(Location location);
+    WeatherBatchResult getWeather(Collection<String> cities) throws WeatherSdkException;
+    CompletableFuture<WeatherBatchResult> getWeatherAsync(Collection<String> cities);
+    byte[] getWeatherJson(String city) throws WeatherSdkException;
+    CompletableFuture<byte[]> getWeatherJsonAsync(String city);
+    void writeWeather(String city, OutputStream out) throws WeatherSdkException, IOException;
+    Flow.Publisher<WeatherData> subscribe(String city) throws WeatherSdkException;
+    CompletableFuture<Void> subscribe(String city, Consumer<? super WeatherData> listener) throws WeatherSdkException;
+    boolean history(String city, WeatherHistory.Series series, Duration window, WeatherHistory.Aggregate out)
+            throws WeatherSdkException;
+
+    /**
+     * Aggregates the location's observations from the last {@code window} into {@code out}, which can be reused
+     * between calls. Returns {@code false} when history is disabled or holds nothing for the location in the window.
+     */
+    boolean history(Location location, WeatherHistory.Series series, Duration window, WeatherHistory.Aggregate out)
+            throws WeatherSdkException;
+
+    MetricsSnapshot metrics();
     void close();
 }
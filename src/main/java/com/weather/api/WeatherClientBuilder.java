@@ -1,26 +1,77 @@
 package com.weather.api;
 
+import com.weather.config.CachePolicy;
+import com.weather.config.HttpTransportConfig;
+import com.weather.config.HistoryConfig;
+import com.weather.config.QuotaConfig;
+import com.weather.config.ResilienceConfig;
 import com.weather.config.WeatherApiConfig;
 import com.weather.config.WeatherSdkConfig;
 import com.weather.core.DefaultWeatherClient;
+import com.weather.core.SharedCacheStore;
+import com.weather.core.TenantPool;
+import com.weather.core.Ticker;
 import com.weather.core.WeatherClientRegistry;
+import com.weather.infra.HttpTransport;
 import com.weather.infra.OpenWeatherApi;
+import com.weather.infra.ResilientWeatherApi;
+import com.weather.infra.WeatherApi;
+import com.weather.metrics.DefaultWeatherMetrics;
+import com.weather.metrics.WeatherMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class WeatherClientBuilder {
     private static final Logger log = LoggerFactory.getLogger(WeatherClientBuilder.class);
 
     private String apiKey;
+    private String units;
+    private String lang;
     private WorkMode workMode;
     private Integer cacheSize;
     private Integer ttlMinutes;
+    private CacheType cacheType;
+    private Integer batchConcurrency;
+    private Integer pollingThreads;
+    private Integer callsPerMinute;
+    private Double refreshAheadFactor;
+    private Integer maxStaleMinutes;
+    private String snapshotPath;
+    private Integer snapshotIntervalMinutes;
+    private Double geoCellDegrees;
+    private Integer pollMinReads;
+    private Integer pollIdleMinutes;
+    private Long maxWeight;
+    private List<CachePolicy> cachePolicies;
+    private Integer batchWindowMillis;
+    private WeatherMetrics metrics;
+    private HttpTransportConfig httpConfig;
+    private HttpTransport transport;
+    private SharedCacheStore sharedCache;
+    private ResilienceConfig resilience;
+    private QuotaConfig quota;
+    private HistoryConfig history;
+    private Ticker ticker;
+    private TenantPool tenantPool;
 
     public WeatherClientBuilder apiKey(String key) {
         this.apiKey = key;
         return this;
     }
 
+    public WeatherClientBuilder units(String units) {
+        this.units = units;
+        return this;
+    }
+
+    public WeatherClientBuilder lang(String lang) {
+        this.lang = lang;
+        return this;
+    }
+
     public WeatherClientBuilder workMode(WorkMode mode) {
         this.workMode = mode;
         return this;
@@ -36,6 +87,134 @@ public class WeatherClientBuilder {
         return this;
     }
 
+    public WeatherClientBuilder cacheType(CacheType type) {
+        this.cacheType = type;
+        return this;
+    }
+
+    public WeatherClientBuilder batchConcurrency(int concurrency) {
+        this.batchConcurrency = concurrency;
+        return this;
+    }
+
+    public WeatherClientBuilder pollingThreads(int threads) {
+        this.pollingThreads = threads;
+        return this;
+    }
+
+    public WeatherClientBuilder callsPerMinute(int limit) {
+        this.callsPerMinute = limit;
+        return this;
+    }
+
+    public WeatherClientBuilder refreshAhead(double factor) {
+        this.refreshAheadFactor = factor;
+        return this;
+    }
+
+    public WeatherClientBuilder maxStaleMinutes(int minutes) {
+        this.maxStaleMinutes = minutes;
+        return this;
+    }
+
+    public WeatherClientBuilder cacheSnapshot(String path) {
+        this.snapshotPath = path;
+        return this;
+    }
+
+    public WeatherClientBuilder cacheSnapshot(String path, int intervalMinutes) {
+        this.snapshotPath = path;
+        this.snapshotIntervalMinutes = intervalMinutes;
+        return this;
+    }
+
+    public WeatherClientBuilder geoCellDegrees(double degrees) {
+        this.geoCellDegrees = degrees;
+        return this;
+    }
+
+    public WeatherClientBuilder pollMinReads(int reads) {
+        this.pollMinReads = reads;
+        return this;
+    }
+
+    public WeatherClientBuilder pollIdleMinutes(int minutes) {
+        this.pollIdleMinutes = minutes;
+        return this;
+    }
+
+    public WeatherClientBuilder maxWeight(long weight) {
+        this.maxWeight = weight;
+        return this;
+    }
+
+    public WeatherClientBuilder cachePolicy(CachePolicy policy) {
+        if (cachePolicies == null) {
+            cachePolicies = new ArrayList<>();
+        }
+        cachePolicies.add(policy);
+        return this;
+    }
+
+    public WeatherClientBuilder cachePolicies(List<CachePolicy> policies) {
+        this.cachePolicies = new ArrayList<>(policies);
+        return this;
+    }
+
+    public WeatherClientBuilder batchWindowMillis(int millis) {
+        this.batchWindowMillis = millis;
+        return this;
+    }
+
+    public WeatherClientBuilder metrics(WeatherMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public WeatherClientBuilder httpConfig(HttpTransportConfig config) {
+        this.httpConfig = config;
+        return this;
+    }
+
+    public WeatherClientBuilder httpTransport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    public WeatherClientBuilder sharedCache(SharedCacheStore store) {
+        this.sharedCache = store;
+        return this;
+    }
+
+    public WeatherClientBuilder resilience(ResilienceConfig config) {
+        this.resilience = config;
+        return this;
+    }
+
+    public WeatherClientBuilder quota(QuotaConfig config) {
+        this.quota = config;
+        return this;
+    }
+
+    public WeatherClientBuilder history(HistoryConfig config) {
+        this.history = config;
+        return this;
+    }
+
+    public WeatherClientBuilder ticker(Ticker ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * Builds the client as a tenant of {@code pool}, which then supplies the cache, scheduler, transport and SDK
+     * settings; only the API key, units and language of this builder apply.
+     */
+    public WeatherClientBuilder tenantPool(TenantPool pool) {
+        this.tenantPool = pool;
+        return this;
+    }
+
     public WeatherClient build() throws WeatherSdkException {
         log.info("Initializing WeatherClient");
 
@@ -52,6 +231,14 @@ public class WeatherClientBuilder {
                     apiConfig.lang()
             );
         }
+        if (units != null || lang != null) {
+            apiConfig = new WeatherApiConfig(
+                    apiConfig.apiKey(),
+                    apiConfig.baseUrl(),
+                    units != null ? units : apiConfig.units(),
+                    lang != null ? lang : apiConfig.lang()
+            );
+        }
 
         if (apiConfig.apiKey() == null || apiConfig.apiKey().isBlank() || apiConfig.apiKey().equals("replace_me")) {
             log.error("Missing or invalid API key. Please configure WEATHER_API_KEY env var or weather.api.key in properties.");
@@ -60,23 +247,52 @@ public class WeatherClientBuilder {
             );
         }
 
+        if (tenantPool != null) {
+            return tenantPool.register(apiConfig);
+        }
+
         WeatherSdkConfig sdkConfig = WeatherSdkConfig.defaults();
-        log.debug("Loaded default SDK config: ttl={}min, cacheSize={}, mode={}",
-                sdkConfig.ttlMinutes(), sdkConfig.cacheSize(), sdkConfig.workMode());
-
-        if (cacheSize != null || ttlMinutes != null || workMode != null) {
-            sdkConfig = new WeatherSdkConfig(
-                    cacheSize != null ? cacheSize : sdkConfig.cacheSize(),
-                    ttlMinutes != null ? ttlMinutes : sdkConfig.ttlMinutes(),
-                    workMode != null ? workMode : sdkConfig.workMode(),
-                    sdkConfig.cities()
-            );
-            log.info("Custom SDK config applied: ttl={}min, cacheSize={}, mode={}, city={}",
-                    sdkConfig.ttlMinutes(), sdkConfig.cacheSize(), sdkConfig.workMode(), sdkConfig.cities());
+        log.debug("Loaded default SDK config: ttl={}min, cacheSize={}, mode={}, cacheType={}",
+                sdkConfig.ttlMinutes(), sdkConfig.cacheSize(), sdkConfig.workMode(), sdkConfig.cacheType());
+
+        WeatherSdkConfig.Builder custom = sdkConfig.toBuilder();
+        if (cacheSize != null) custom.cacheSize(cacheSize);
+        if (ttlMinutes != null) custom.ttlMinutes(ttlMinutes);
+        if (workMode != null) custom.workMode(workMode);
+        if (cacheType != null) custom.cacheType(cacheType);
+        if (batchConcurrency != null) custom.batchConcurrency(batchConcurrency);
+        if (pollingThreads != null) custom.pollingThreads(pollingThreads);
+        if (callsPerMinute != null) custom.callsPerMinute(callsPerMinute);
+        if (refreshAheadFactor != null) custom.refreshAheadFactor(refreshAheadFactor);
+        if (maxStaleMinutes != null) custom.maxStaleMinutes(maxStaleMinutes);
+        if (snapshotPath != null) custom.snapshotPath(snapshotPath);
+        if (snapshotIntervalMinutes != null) custom.snapshotIntervalMinutes(snapshotIntervalMinutes);
+        if (geoCellDegrees != null) custom.geoCellDegrees(geoCellDegrees);
+        if (pollMinReads != null) custom.pollMinReads(pollMinReads);
+        if (pollIdleMinutes != null) custom.pollIdleMinutes(pollIdleMinutes);
+        if (maxWeight != null) custom.maxWeight(maxWeight);
+        if (cachePolicies != null) custom.cachePolicies(cachePolicies);
+        if (batchWindowMillis != null) custom.batchWindowMillis(batchWindowMillis);
+        WeatherSdkConfig customized = custom.build();
+        if (!customized.equals(sdkConfig)) {
+            sdkConfig = customized;
+            log.info("Custom SDK config applied: ttl={}min, cacheSize={}, mode={}, cacheType={}, city={}",
+                    sdkConfig.ttlMinutes(), sdkConfig.cacheSize(), sdkConfig.workMode(),
+                    sdkConfig.cacheType(), sdkConfig.cities());
         }
 
-        OpenWeatherApi api = new OpenWeatherApi(apiConfig);
-        DefaultWeatherClient client = new DefaultWeatherClient(apiConfig, api, sdkConfig);
+        WeatherMetrics clientMetrics = metrics != null ? metrics : new DefaultWeatherMetrics();
+        HttpTransport clientTransport = transport != null
+                ? transport
+                : new HttpTransport(httpConfig != null ? httpConfig : HttpTransportConfig.defaults());
+        WeatherApi api = new OpenWeatherApi(apiConfig, clientMetrics, clientTransport);
+        ResilienceConfig resilienceConfig = resilience != null ? resilience : ResilienceConfig.defaults();
+        if (resilienceConfig.enabled()) {
+            api = new ResilientWeatherApi(api, resilienceConfig, clientMetrics);
+        }
+        DefaultWeatherClient client = new DefaultWeatherClient(apiConfig, api, sdkConfig, clientMetrics, sharedCache,
+                ticker != null ? ticker : Ticker.SYSTEM, quota != null ? quota : QuotaConfig.defaults(),
+                history != null ? history : HistoryConfig.defaults());
 
         WeatherClientRegistry.register(apiConfig.apiKey(), client);
         log.info("WeatherClient successfully registered (apiKey={})", apiConfig.apiKey());
@@ -8,8 +8,17 @@ public record WeatherData(
         long datetime,
         Sys sys,
         int timezone,
-        String name
+        String name,
+        long id
 ) {
+    /**
+     * For callers written before {@code id} was added; the ID is left unknown ({@code 0}).
+     */
+    public WeatherData(Weather weather, Temperature temperature, int visibility, Wind wind, long datetime, Sys sys,
+                       int timezone, String name) {
+        this(weather, temperature, visibility, wind, datetime, sys, timezone, name, 0);
+    }
+
     public record Weather(String main, String description) {}
     public record Temperature(double temp, double feels_like) {}
     public record Wind(double speed) {}
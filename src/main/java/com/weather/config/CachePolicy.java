@@ -0,0 +1,70 @@
+package com.weather.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cache settings for the keys matching any of {@code patterns}. A pattern is a city name, a cache key such as
+ * {@code id:2643743}, or a glob with {@code *} and {@code ?}; names match case-insensitively. {@code null}
+ * settings inherit the global ones.
+ */
+public record CachePolicy(
+        List<String> patterns,
+        Integer ttlMinutes,
+        Double refreshAheadFactor,
+        Integer weight
+) {
+    private static final Logger log = LoggerFactory.getLogger(CachePolicy.class);
+
+    public CachePolicy {
+        patterns = List.copyOf(patterns);
+    }
+
+    /**
+     * Parses {@code WEATHER_CACHE_POLICIES}: policies separated by {@code ;}, each
+     * {@code pattern|pattern@setting=value,...} with settings {@code ttl}, {@code refreshAhead} and {@code weight}.
+     * For example {@code london|paris@ttl=5,refreshAhead=0.8;geo:*@ttl=60,weight=2}.
+     */
+    public static List<CachePolicy> parse(String spec) {
+        List<CachePolicy> policies = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return policies;
+        }
+        for (String part : spec.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int at = part.lastIndexOf('@');
+            if (at < 0) {
+                log.warn("Ignoring cache policy '{}' without settings", part.trim());
+                continue;
+            }
+            List<String> patterns = Arrays.stream(part.substring(0, at).split("\\|"))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .toList();
+            Integer ttl = null;
+            Double refreshAhead = null;
+            Integer weight = null;
+            for (String setting : part.substring(at + 1).split(",")) {
+                String[] kv = setting.split("=", 2);
+                if (kv.length != 2) {
+                    continue;
+                }
+                String value = kv[1].trim();
+                switch (kv[0].trim()) {
+                    case "ttl" -> ttl = Integer.parseInt(value);
+                    case "refreshAhead" -> refreshAhead = Double.parseDouble(value);
+                    case "weight" -> weight = Integer.parseInt(value);
+                    default -> log.warn("Unknown cache policy setting '{}'", kv[0].trim());
+                }
+            }
+            policies.add(new CachePolicy(patterns, ttl, refreshAhead, weight));
+        }
+        return policies;
+    }
+}
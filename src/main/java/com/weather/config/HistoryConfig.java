@@ -0,0 +1,28 @@
+package com.weather.config;
+
+/**
+ * Size of the per-city history kept from refreshes and fetches. All of it is allocated up front, about
+ * {@code 40 * samplesPerCity * maxCities} bytes.
+ *
+ * @param samplesPerCity observations kept per city, oldest overwritten first; {@code 0} disables history
+ * @param maxCities      cities tracked at once; a new city beyond this replaces one picked by CLOCK, the first the
+ *                       hand finds not updated since it last passed
+ */
+public record HistoryConfig(
+        int samplesPerCity,
+        int maxCities
+) {
+    public static HistoryConfig defaults() {
+        int samples = Integer.parseInt(System.getenv().getOrDefault("WEATHER_HISTORY_SAMPLES", "0"));
+        int maxCities = Integer.parseInt(System.getenv().getOrDefault("WEATHER_HISTORY_MAX_CITIES", "1000"));
+        return new HistoryConfig(samples, maxCities);
+    }
+
+    public static HistoryConfig disabled() {
+        return new HistoryConfig(0, 0);
+    }
+
+    public boolean enabled() {
+        return samplesPerCity > 0 && maxCities > 0;
+    }
+}
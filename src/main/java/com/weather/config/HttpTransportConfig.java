@@ -0,0 +1,34 @@
+package com.weather.config;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+public record HttpTransportConfig(
+        Duration connectTimeout,
+        Duration requestTimeout,
+        boolean http2,
+        boolean gzip,
+        int keepAliveSeconds,
+        Executor executor
+) {
+    public static HttpTransportConfig defaults() {
+        long connectMillis = Long.parseLong(System.getenv().getOrDefault("WEATHER_HTTP_CONNECT_TIMEOUT_MS", "5000"));
+        long requestMillis = Long.parseLong(System.getenv().getOrDefault("WEATHER_HTTP_TIMEOUT_MS", "10000"));
+        boolean http2 = Boolean.parseBoolean(System.getenv().getOrDefault("WEATHER_HTTP2", "true"));
+        boolean gzip = Boolean.parseBoolean(System.getenv().getOrDefault("WEATHER_HTTP_GZIP", "true"));
+        int keepAlive = Integer.parseInt(System.getenv().getOrDefault("WEATHER_HTTP_KEEPALIVE_SECONDS", "0"));
+
+        return new HttpTransportConfig(
+                Duration.ofMillis(connectMillis),
+                Duration.ofMillis(requestMillis),
+                http2,
+                gzip,
+                keepAlive,
+                null
+        );
+    }
+
+    public HttpTransportConfig withExecutor(Executor executor) {
+        return new HttpTransportConfig(connectTimeout, requestTimeout, http2, gzip, keepAliveSeconds, executor);
+    }
+}
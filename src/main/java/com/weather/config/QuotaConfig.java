@@ -0,0 +1,32 @@
+package com.weather.config;
+
+/**
+ * Call limits of one OpenWeather API key, enforced on the client before requests leave.
+ *
+ * @param callsPerMinute  plan limit per calendar minute; {@code 0} for none
+ * @param callsPerDay     plan limit per UTC day; {@code 0} for none
+ * @param userReserve     share of each limit that background refreshes may not touch, kept for user-facing misses
+ * @param warningRatio    share of a limit after which the early-warning metric fires
+ */
+public record QuotaConfig(
+        long callsPerMinute,
+        long callsPerDay,
+        double userReserve,
+        double warningRatio
+) {
+    public static QuotaConfig defaults() {
+        long perMinute = Long.parseLong(System.getenv().getOrDefault("WEATHER_QUOTA_PER_MINUTE", "0"));
+        long perDay = Long.parseLong(System.getenv().getOrDefault("WEATHER_QUOTA_PER_DAY", "0"));
+        double reserve = Double.parseDouble(System.getenv().getOrDefault("WEATHER_QUOTA_USER_RESERVE", "0.2"));
+        double warning = Double.parseDouble(System.getenv().getOrDefault("WEATHER_QUOTA_WARNING", "0.8"));
+        return new QuotaConfig(perMinute, perDay, reserve, warning);
+    }
+
+    public static QuotaConfig unlimited() {
+        return new QuotaConfig(0, 0, 0, 1);
+    }
+
+    public boolean enabled() {
+        return callsPerMinute > 0 || callsPerDay > 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.weather.config;
+
+import java.time.Duration;
+
+public record ResilienceConfig(
+        boolean enabled,
+        int failureThreshold,
+        Duration openDuration,
+        Duration minTimeout,
+        Duration maxTimeout,
+        double timeoutMultiplier,
+        int maxRetries,
+        double retryBudgetRatio,
+        Duration retryBackoff,
+        Duration maxRetryDelay
+) {
+    public static ResilienceConfig defaults() {
+        boolean enabled = Boolean.parseBoolean(System.getenv().getOrDefault("WEATHER_RESILIENCE", "true"));
+        int failures = Integer.parseInt(System.getenv().getOrDefault("WEATHER_CIRCUIT_FAILURES", "5"));
+        long openSeconds = Long.parseLong(System.getenv().getOrDefault("WEATHER_CIRCUIT_OPEN_SECONDS", "30"));
+        long maxTimeoutMillis = Long.parseLong(System.getenv().getOrDefault("WEATHER_HTTP_TIMEOUT_MS", "10000"));
+        int retries = Integer.parseInt(System.getenv().getOrDefault("WEATHER_MAX_RETRIES", "2"));
+        double budget = Double.parseDouble(System.getenv().getOrDefault("WEATHER_RETRY_BUDGET", "0.1"));
+
+        return new ResilienceConfig(
+                enabled,
+                failures,
+                Duration.ofSeconds(openSeconds),
+                Duration.ofMillis(Math.min(500, maxTimeoutMillis)),
+                Duration.ofMillis(maxTimeoutMillis),
+                3.0,
+                retries,
+                budget,
+                Duration.ofMillis(200),
+                Duration.ofSeconds(60)
+        );
+    }
+
+    public static ResilienceConfig disabled() {
+        ResilienceConfig d = defaults();
+        return new ResilienceConfig(false, d.failureThreshold, d.openDuration, d.minTimeout, d.maxTimeout,
+                d.timeoutMultiplier, 0, 0, d.retryBackoff, d.maxRetryDelay);
+    }
+}
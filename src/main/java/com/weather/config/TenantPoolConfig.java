@@ -0,0 +1,19 @@
+package com.weather.config;
+
+/**
+ * Sizing of the cache shared by all clients of a tenant pool.
+ *
+ * @param maxEntries     bound on the entries of all partitions together
+ * @param partitionQuota bound on the entries of one partition (tenants with the same units and language);
+ *                       {@code 0} leaves partitions limited only by {@code maxEntries} and fair eviction
+ */
+public record TenantPoolConfig(
+        int maxEntries,
+        int partitionQuota
+) {
+    public static TenantPoolConfig defaults() {
+        int maxEntries = Integer.parseInt(System.getenv().getOrDefault("WEATHER_POOL_MAX_ENTRIES", "10000"));
+        int partitionQuota = Integer.parseInt(System.getenv().getOrDefault("WEATHER_POOL_PARTITION_QUOTA", "0"));
+        return new TenantPoolConfig(maxEntries, partitionQuota);
+    }
+}
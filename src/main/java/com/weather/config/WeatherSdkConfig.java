@@ -1,5 +1,6 @@
 package com.weather.config;
 
+import com.weather.api.CacheType;
 import com.weather.api.WorkMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,8 +13,21 @@ public record WeatherSdkConfig(
         int cacheSize,
         int ttlMinutes,
         WorkMode workMode,
-        List<String> cities
-
+        List<String> cities,
+        CacheType cacheType,
+        int batchConcurrency,
+        int pollingThreads,
+        int callsPerMinute,
+        double refreshAheadFactor,
+        int maxStaleMinutes,
+        String snapshotPath,
+        int snapshotIntervalMinutes,
+        double geoCellDegrees,
+        int pollMinReads,
+        int pollIdleMinutes,
+        long maxWeight,
+        List<CachePolicy> cachePolicies,
+        int batchWindowMillis
 ) {
     private static final Logger log = LoggerFactory.getLogger(WeatherSdkConfig.class);
 
@@ -22,6 +36,21 @@ public record WeatherSdkConfig(
         int ttlMinutes = Integer.parseInt(System.getenv().getOrDefault("WEATHER_TTL_MINUTES", "3"));
         String modeEnv = System.getenv().getOrDefault("WEATHER_MODE", "ON_DEMAND");
         String cityEnv = System.getenv().getOrDefault("WEATHER_CITY", "London");
+        String cacheTypeEnv = System.getenv().getOrDefault("WEATHER_CACHE_TYPE", "LRU");
+        int batchConcurrency = Integer.parseInt(System.getenv().getOrDefault("WEATHER_BATCH_CONCURRENCY", "8"));
+        int pollingThreads = Integer.parseInt(System.getenv().getOrDefault("WEATHER_POLLING_THREADS", "4"));
+        int callsPerMinute = Integer.parseInt(System.getenv().getOrDefault("WEATHER_CALLS_PER_MINUTE", "60"));
+        double refreshAheadFactor = Double.parseDouble(System.getenv().getOrDefault("WEATHER_REFRESH_AHEAD", "0"));
+        int maxStaleMinutes = Integer.parseInt(System.getenv().getOrDefault("WEATHER_MAX_STALE_MINUTES", "0"));
+        String snapshotPath = System.getenv("WEATHER_CACHE_SNAPSHOT");
+        int snapshotIntervalMinutes = Integer.parseInt(
+                System.getenv().getOrDefault("WEATHER_SNAPSHOT_INTERVAL_MINUTES", "5"));
+        double geoCellDegrees = Double.parseDouble(System.getenv().getOrDefault("WEATHER_GEO_CELL_DEGREES", "0.05"));
+        int pollMinReads = Integer.parseInt(System.getenv().getOrDefault("WEATHER_POLL_MIN_READS", "2"));
+        int pollIdleMinutes = Integer.parseInt(System.getenv().getOrDefault("WEATHER_POLL_IDLE_MINUTES", "60"));
+        long maxWeight = Long.parseLong(System.getenv().getOrDefault("WEATHER_CACHE_MAX_WEIGHT", "0"));
+        List<CachePolicy> cachePolicies = CachePolicy.parse(System.getenv("WEATHER_CACHE_POLICIES"));
+        int batchWindowMillis = Integer.parseInt(System.getenv().getOrDefault("WEATHER_BATCH_WINDOW_MS", "0"));
 
         WorkMode mode;
         try {
@@ -30,6 +59,14 @@ public record WeatherSdkConfig(
             log.warn("Unknown WEATHER_MODE '{}', fallback to ON_DEMAND", modeEnv);
             mode = WorkMode.ON_DEMAND;
         }
+
+        CacheType cacheType;
+        try {
+            cacheType = CacheType.valueOf(cacheTypeEnv.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown WEATHER_CACHE_TYPE '{}', fallback to LRU", cacheTypeEnv);
+            cacheType = CacheType.LRU;
+        }
         List<String> cities = Arrays.stream(cityEnv.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
@@ -38,6 +75,162 @@ public record WeatherSdkConfig(
 
         log.info("Configured cities: {}", String.join(", ", cities));
 
-        return new WeatherSdkConfig(cacheSize, ttlMinutes, mode, cities);
+        return new WeatherSdkConfig(cacheSize, ttlMinutes, mode, cities, cacheType, batchConcurrency,
+                pollingThreads, callsPerMinute, refreshAheadFactor, maxStaleMinutes,
+                snapshotPath, snapshotIntervalMinutes, geoCellDegrees, pollMinReads, pollIdleMinutes,
+                maxWeight, cachePolicies, batchWindowMillis);
+    }
+
+    /**
+     * A builder starting from the values {@link #defaults()} uses when no environment variable is set.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder starting from this config, to change a few settings by name.
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .cacheSize(cacheSize)
+                .ttlMinutes(ttlMinutes)
+                .workMode(workMode)
+                .cities(cities)
+                .cacheType(cacheType)
+                .batchConcurrency(batchConcurrency)
+                .pollingThreads(pollingThreads)
+                .callsPerMinute(callsPerMinute)
+                .refreshAheadFactor(refreshAheadFactor)
+                .maxStaleMinutes(maxStaleMinutes)
+                .snapshotPath(snapshotPath)
+                .snapshotIntervalMinutes(snapshotIntervalMinutes)
+                .geoCellDegrees(geoCellDegrees)
+                .pollMinReads(pollMinReads)
+                .pollIdleMinutes(pollIdleMinutes)
+                .maxWeight(maxWeight)
+                .cachePolicies(cachePolicies)
+                .batchWindowMillis(batchWindowMillis);
+    }
+
+    public static final class Builder {
+        private int cacheSize = 5;
+        private int ttlMinutes = 3;
+        private WorkMode workMode = WorkMode.ON_DEMAND;
+        private List<String> cities = List.of("London");
+        private CacheType cacheType = CacheType.LRU;
+        private int batchConcurrency = 8;
+        private int pollingThreads = 4;
+        private int callsPerMinute = 60;
+        private double refreshAheadFactor;
+        private int maxStaleMinutes;
+        private String snapshotPath;
+        private int snapshotIntervalMinutes = 5;
+        private double geoCellDegrees = 0.05;
+        private int pollMinReads = 2;
+        private int pollIdleMinutes = 60;
+        private long maxWeight;
+        private List<CachePolicy> cachePolicies = List.of();
+        private int batchWindowMillis;
+
+        private Builder() {
+        }
+
+        public Builder cacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder ttlMinutes(int ttlMinutes) {
+            this.ttlMinutes = ttlMinutes;
+            return this;
+        }
+
+        public Builder workMode(WorkMode workMode) {
+            this.workMode = workMode;
+            return this;
+        }
+
+        public Builder cities(List<String> cities) {
+            this.cities = List.copyOf(cities);
+            return this;
+        }
+
+        public Builder cacheType(CacheType cacheType) {
+            this.cacheType = cacheType;
+            return this;
+        }
+
+        public Builder batchConcurrency(int batchConcurrency) {
+            this.batchConcurrency = batchConcurrency;
+            return this;
+        }
+
+        public Builder pollingThreads(int pollingThreads) {
+            this.pollingThreads = pollingThreads;
+            return this;
+        }
+
+        public Builder callsPerMinute(int callsPerMinute) {
+            this.callsPerMinute = callsPerMinute;
+            return this;
+        }
+
+        public Builder refreshAheadFactor(double refreshAheadFactor) {
+            this.refreshAheadFactor = refreshAheadFactor;
+            return this;
+        }
+
+        public Builder maxStaleMinutes(int maxStaleMinutes) {
+            this.maxStaleMinutes = maxStaleMinutes;
+            return this;
+        }
+
+        public Builder snapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+            return this;
+        }
+
+        public Builder snapshotIntervalMinutes(int snapshotIntervalMinutes) {
+            this.snapshotIntervalMinutes = snapshotIntervalMinutes;
+            return this;
+        }
+
+        public Builder geoCellDegrees(double geoCellDegrees) {
+            this.geoCellDegrees = geoCellDegrees;
+            return this;
+        }
+
+        public Builder pollMinReads(int pollMinReads) {
+            this.pollMinReads = pollMinReads;
+            return this;
+        }
+
+        public Builder pollIdleMinutes(int pollIdleMinutes) {
+            this.pollIdleMinutes = pollIdleMinutes;
+            return this;
+        }
+
+        public Builder maxWeight(long maxWeight) {
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        public Builder cachePolicies(List<CachePolicy> cachePolicies) {
+            this.cachePolicies = List.copyOf(cachePolicies);
+            return this;
+        }
+
+        public Builder batchWindowMillis(int batchWindowMillis) {
+            this.batchWindowMillis = batchWindowMillis;
+            return this;
+        }
+
+        public WeatherSdkConfig build() {
+            return new WeatherSdkConfig(cacheSize, ttlMinutes, workMode, cities, cacheType, batchConcurrency,
+                    pollingThreads, callsPerMinute, refreshAheadFactor, maxStaleMinutes,
+                    snapshotPath, snapshotIntervalMinutes, geoCellDegrees, pollMinReads, pollIdleMinutes,
+                    maxWeight, cachePolicies, batchWindowMillis);
+        }
     }
 }
@@ -1,21 +1,112 @@
 package com.weather.core;
 
 import com.weather.api.WeatherData;
+import com.weather.util.JsonUtils;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached value with its fetch time and last read time, both as {@link Ticker} readings, and the policy
+ * resolved for its key when it was written. Callers read the ticker once per operation and pass it in,
+ * so expiry checks never touch the system clock.
+ */
 public class CacheEntry {
+    // Stamping at most once a second keeps hot entries from bouncing their cache line on every read
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final WeatherData data;
-    private final long timestamp;
+    private final long writeTime;
+    private final EntryPolicy policy;
+    private volatile boolean accessed;
+    private volatile long lastAccessTime;
+    private volatile byte[] json;
+
+    CacheEntry(WeatherData data, long writeTime, EntryPolicy policy) {
+        this(data, writeTime, writeTime, policy);
+    }
 
-    public CacheEntry(WeatherData data) {
+    CacheEntry(WeatherData data, long writeTime, long lastAccessTime, EntryPolicy policy) {
         this.data = data;
-        this.timestamp = System.currentTimeMillis();
+        this.writeTime = writeTime;
+        this.lastAccessTime = lastAccessTime;
+        this.policy = policy;
     }
 
     public WeatherData getData() {
         return data;
     }
 
-    public boolean isExpired(long ttlMillis) {
-        return System.currentTimeMillis() - timestamp > ttlMillis;
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    /**
+     * Ticker time of the last read, carried over when the entry is replaced by a refresh.
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public long ageMillis(long now) {
+        return TimeUnit.NANOSECONDS.toMillis(now - writeTime);
+    }
+
+    public boolean isExpired(long now) {
+        return now - writeTime > policy.ttlNanos;
+    }
+
+    /**
+     * Past its TTL and its stale window, so nobody may be served this entry any more.
+     */
+    boolean isReclaimable(long now) {
+        return now - writeTime > policy.retentionNanos;
+    }
+
+    public long ttlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(policy.ttlNanos);
+    }
+
+    public int weight() {
+        return policy.weight;
+    }
+
+    EntryPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * The data as compact JSON, encoded on first use and kept for the life of the entry. Callers must not
+     * modify the array.
+     */
+    public byte[] json() throws IOException {
+        byte[] bytes = json;
+        if (bytes == null) {
+            // Racing threads may both encode; either result is the same
+            bytes = JsonUtils.toJsonBytes(data);
+            json = bytes;
+        }
+        return bytes;
+    }
+
+    void markAccessed(long now) {
+        if (!accessed) {
+            accessed = true;
+        }
+        if (now - lastAccessTime >= ACCESS_GRANULARITY_NANOS) {
+            lastAccessTime = now;
+        }
+    }
+
+    boolean clearAccessed() {
+        boolean was = accessed;
+        accessed = false;
+        return was;
+    }
+
+    void inheritAccess(CacheEntry previous) {
+        if (previous.lastAccessTime - lastAccessTime > 0) {
+            lastAccessTime = previous.lastAccessTime;
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.config.CachePolicy;
+import com.weather.config.WeatherSdkConfig;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the TTL, refresh-ahead point, stale retention and eviction weight of a cache key. Rules are tried
+ * in order against the key and against the city name in the data, so a policy for {@code london} still applies
+ * after the entry has moved to its {@code id:} key. Resolution happens on writes only; entries keep a
+ * reference to their policy so reads never match patterns.
+ */
+public final class CachePolicies {
+
+    private final EntryPolicy defaults;
+    private final List<Rule> rules = new ArrayList<>();
+    private final long minTtlNanos;
+    private final long maxRetentionNanos;
+
+    public CachePolicies(int ttlMinutes, double refreshAheadFactor, int staleMinutes, List<CachePolicy> policies) {
+        long staleNanos = TimeUnit.MINUTES.toNanos(Math.max(0, staleMinutes));
+        this.defaults = policy(TimeUnit.MINUTES.toNanos(ttlMinutes), refreshAheadFactor, staleNanos, 1);
+
+        long minTtl = defaults.ttlNanos;
+        long maxRetention = defaults.retentionNanos;
+        for (CachePolicy p : policies) {
+            EntryPolicy resolved = policy(
+                    p.ttlMinutes() != null ? TimeUnit.MINUTES.toNanos(p.ttlMinutes()) : defaults.ttlNanos,
+                    p.refreshAheadFactor() != null ? p.refreshAheadFactor() : refreshAheadFactor,
+                    staleNanos,
+                    p.weight() != null ? Math.max(1, p.weight()) : 1);
+            rules.add(new Rule(p.patterns(), resolved));
+            minTtl = Math.min(minTtl, resolved.ttlNanos);
+            maxRetention = Math.max(maxRetention, resolved.retentionNanos);
+        }
+        this.minTtlNanos = minTtl;
+        this.maxRetentionNanos = maxRetention;
+    }
+
+    public static CachePolicies of(WeatherSdkConfig sdkConfig) {
+        return new CachePolicies(sdkConfig.ttlMinutes(), sdkConfig.refreshAheadFactor(), sdkConfig.maxStaleMinutes(),
+                sdkConfig.cachePolicies());
+    }
+
+    public static CachePolicies uniform(int ttlMinutes, int staleMinutes) {
+        return new CachePolicies(ttlMinutes, 0, staleMinutes, List.of());
+    }
+
+    EntryPolicy resolve(String key, WeatherData data) {
+        if (rules.isEmpty()) {
+            return defaults;
+        }
+        String name = data != null && data.name() != null ? LocationKeys.normalizeName(data.name()) : null;
+        for (Rule rule : rules) {
+            if (rule.matches(key) || (name != null && rule.matches(name))) {
+                return rule.policy;
+            }
+        }
+        return defaults;
+    }
+
+    EntryPolicy defaults() {
+        return defaults;
+    }
+
+    /**
+     * Shortest TTL of any policy, used as the polling interval so tight policies are refreshed in time.
+     */
+    public long minTtlNanos() {
+        return minTtlNanos;
+    }
+
+    public long maxRetentionNanos() {
+        return maxRetentionNanos;
+    }
+
+    private static EntryPolicy policy(long ttlNanos, double refreshAheadFactor, long staleNanos, int weight) {
+        long refreshAhead = refreshAheadFactor > 0 && refreshAheadFactor < 1
+                ? (long) (ttlNanos * refreshAheadFactor)
+                : ttlNanos;
+        return new EntryPolicy(ttlNanos, refreshAhead, ttlNanos + staleNanos, weight);
+    }
+
+    private static final class Rule {
+        private final Set<String> exact = new HashSet<>();
+        private final Pattern glob;
+        private final EntryPolicy policy;
+
+        private Rule(List<String> patterns, EntryPolicy policy) {
+            this.policy = policy;
+            List<String> globs = new ArrayList<>();
+            for (String pattern : patterns) {
+                String normalized = LocationKeys.normalizeName(pattern);
+                if (normalized.indexOf('*') >= 0 || normalized.indexOf('?') >= 0) {
+                    globs.add(toRegex(normalized));
+                } else {
+                    exact.add(normalized);
+                }
+            }
+            this.glob = globs.isEmpty() ? null : Pattern.compile(String.join("|", globs));
+        }
+
+        private boolean matches(String value) {
+            return exact.contains(value) || (glob != null && glob.matcher(value).matches());
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (!literal.isEmpty()) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (!literal.isEmpty()) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return "(?:" + regex + ")";
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.util.WeatherDataCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists cache entries, with their original fetch timestamps, to a local binary file so a
+ * restarted client can start warm. Files are written to a temp file and atomically moved in place.
+ * Name aliases are saved alongside, since entries of cities looked up by name are stored under their ID.
+ */
+public class CacheSnapshotStore implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotStore.class);
+
+    private static final int MAGIC = 0x57534E50; // "WSNP"
+    private static final int VERSION = 3;
+    // Same entries, no alias section
+    private static final int VERSION_WITHOUT_ALIASES = 2;
+
+    private final Path file;
+    private final WeatherCache cache;
+    private final LocationKeys locationKeys;
+    private ScheduledExecutorService executor;
+
+    public CacheSnapshotStore(Path file, WeatherCache cache) {
+        this(file, cache, null);
+    }
+
+    /**
+     * @param locationKeys whose aliases are saved and restored with the entries; {@code null} for none
+     */
+    public CacheSnapshotStore(Path file, WeatherCache cache, LocationKeys locationKeys) {
+        this.file = file;
+        this.cache = cache;
+        this.locationKeys = locationKeys;
+    }
+
+    public int restore(long maxAgeMillis) {
+        if (!Files.isRegularFile(file)) {
+            log.info("No cache snapshot at {}, starting cold", file);
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != VERSION && version != VERSION_WITHOUT_ALIASES) {
+                log.warn("Ignoring cache snapshot {} with unknown format", file);
+                return 0;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long timestamp = in.readLong();
+                WeatherData data = WeatherDataCodec.read(in);
+                if (now - timestamp <= maxAgeMillis) {
+                    cache.restore(key, data, timestamp);
+                    restored++;
+                }
+            }
+            int aliases = version == VERSION ? in.readInt() : 0;
+            for (int i = 0; i < aliases; i++) {
+                String nameKey = in.readUTF();
+                String idKey = in.readUTF();
+                if (locationKeys != null) {
+                    locationKeys.alias(nameKey, idKey);
+                }
+            }
+            log.info("Restored {} of {} cached cities and {} name aliases from {}", restored, count,
+                    locationKeys != null ? aliases : 0, file);
+        } catch (IOException e) {
+            log.warn("Could not read cache snapshot {}: {}", file, e.getMessage());
+        }
+        return restored;
+    }
+
+    public void save() {
+        Map<String, CacheEntry> entries = cache.entries();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                write(tmp, entries);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Gone after a successful move; otherwise a failed save must not leave it behind
+                Files.deleteIfExists(tmp);
+            }
+            log.debug("Saved {} cached cities to {}", entries.size(), file);
+        } catch (IOException e) {
+            log.warn("Could not write cache snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void write(Path tmp, Map<String, CacheEntry> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (var e : entries.entrySet()) {
+                out.writeUTF(e.getKey());
+                // Ticker readings are meaningless in another process, so the file holds wall-clock time
+                out.writeLong(cache.ticker().toEpochMillis(e.getValue().getWriteTime()));
+                WeatherDataCodec.write(out, e.getValue().getData());
+            }
+            Map<String, String> aliases = locationKeys != null ? locationKeys.aliases() : Map.of();
+            out.writeInt(aliases.size());
+            for (var alias : aliases.entrySet()) {
+                out.writeUTF(alias.getKey());
+                out.writeUTF(alias.getValue());
+            }
+        }
+    }
+
+    public void start(long intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        ScheduledThreadPoolExecutor scheduled = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "weather-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduled.scheduleWithFixedDelay(this::save, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        this.executor = scheduled;
+        log.info("Cache snapshots enabled (file={}, interval={} min)", file, intervalMinutes);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        save();
+    }
+}
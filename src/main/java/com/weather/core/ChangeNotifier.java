@@ -0,0 +1,223 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes cache writes to subscribers of their key when the data differs from the last one published. Each key
+ * has its own {@link SubmissionPublisher}, so every subscriber gets a bounded buffer; a writer never blocks on
+ * a slow subscriber, which instead misses the updates that do not fit and catches up with the next one.
+ * A key's publisher is dropped with its last subscriber, so a later one starts over from the current data.
+ */
+final class ChangeNotifier implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final int bufferSize;
+    private volatile boolean closed;
+
+    ChangeNotifier() {
+        this(Flow.defaultBufferSize());
+    }
+
+    ChangeNotifier(int bufferSize) {
+        this.bufferSize = bufferSize;
+        AtomicInteger ids = new AtomicInteger();
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        // Listeners run here rather than on the common pool, so a blocking listener cannot starve other work;
+        // the pool is fixed, so many subscribers queue for a thread instead of each getting one
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "weather-notify-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param current the data subscribers already have; later writes are compared against it
+     */
+    Flow.Publisher<WeatherData> publisher(String key, WeatherData current) {
+        checkOpen();
+        // Hide the SubmissionPublisher so callers can neither submit nor close it
+        return subscriber -> {
+            Topic topic = join(key, current);
+            topic.publisher.subscribe(new Tracked(subscriber, () -> leave(key, topic)));
+        };
+    }
+
+    /**
+     * Runs {@code listener} for each update of the key until the returned future is cancelled.
+     */
+    CompletableFuture<Void> consume(String key, WeatherData current, Consumer<? super WeatherData> listener) {
+        Topic topic = join(key, current);
+        CompletableFuture<Void> done = topic.publisher.consume(listener);
+        // Completes on cancellation as well as when the publisher closes
+        done.whenComplete((ignored, error) -> leave(key, topic));
+        return done;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Change notifier is closed");
+        }
+    }
+
+    /**
+     * The key's topic with one more subscriber counted, created with {@code current} as its last update.
+     */
+    private Topic join(String key, WeatherData current) {
+        checkOpen();
+        return topics.compute(key, (k, topic) -> {
+            Topic joined = topic != null ? topic : new Topic(new SubmissionPublisher<>(executor, bufferSize), current);
+            joined.subscribers++;
+            return joined;
+        });
+    }
+
+    private void leave(String key, Topic topic) {
+        AtomicBoolean last = new AtomicBoolean();
+        topics.computeIfPresent(key, (k, existing) -> {
+            if (existing != topic || --existing.subscribers > 0) {
+                return existing;
+            }
+            last.set(true);
+            return null;
+        });
+        if (last.get()) {
+            synchronized (topic) {
+                topic.publisher.close();
+            }
+            log.debug("Last subscriber of '{}' left", key);
+        }
+    }
+
+    boolean isWatched(String key) {
+        return topics.containsKey(key);
+    }
+
+    void publish(String key, WeatherData fresh) {
+        Topic topic = topics.get(key);
+        if (topic == null || !topic.publisher.hasSubscribers()) {
+            return;
+        }
+        synchronized (topic) {
+            // Writers of one key are serialised so subscribers see updates in the order they were compared
+            if (topic.publisher.isClosed() || !changed(topic.last, fresh)) {
+                return;
+            }
+            topic.last = fresh;
+            topic.publisher.offer(fresh, (subscriber, dropped) -> {
+                log.debug("Subscriber of '{}' is falling behind, dropped an update", key);
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Whether anything but the observation time differs; a refresh that returns the same reading is not news.
+     */
+    static boolean changed(WeatherData previous, WeatherData fresh) {
+        return previous == null
+                || !Objects.equals(previous.weather(), fresh.weather())
+                || !Objects.equals(previous.temperature(), fresh.temperature())
+                || previous.visibility() != fresh.visibility()
+                || !Objects.equals(previous.wind(), fresh.wind())
+                || !Objects.equals(previous.sys(), fresh.sys())
+                || previous.timezone() != fresh.timezone();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // Subscribers see onComplete once their buffered updates are delivered
+        topics.values().forEach(topic -> {
+            synchronized (topic) {
+                topic.publisher.close();
+            }
+        });
+        topics.clear();
+        executor.shutdown();
+    }
+
+    private static final class Topic {
+        private final SubmissionPublisher<WeatherData> publisher;
+        private WeatherData last;
+        // Guarded by the topics map's compute
+        private int subscribers;
+
+        private Topic(SubmissionPublisher<WeatherData> publisher, WeatherData last) {
+            this.publisher = publisher;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Passes everything through to the subscriber and reports, once, when the subscription ends.
+     */
+    private static final class Tracked implements Flow.Subscriber<WeatherData> {
+        private final Flow.Subscriber<? super WeatherData> subscriber;
+        private final Runnable onEnd;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Tracked(Flow.Subscriber<? super WeatherData> subscriber, Runnable onEnd) {
+            this.subscriber = subscriber;
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    end();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(WeatherData item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            end();
+            subscriber.onError(error);
+        }
+
+        @Override
+        public void onComplete() {
+            end();
+            subscriber.onComplete();
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true)) {
+                onEnd.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Column-oriented cache for very large location counts. Every entry is a slot in a handful of primitive
+ * arrays, condition strings are dictionary-encoded and keys are indexed by an open-addressing table of
+ * ints, so a cached location costs its key and name strings plus about a hundred bytes of arrays instead
+ * of a dozen objects. {@link WeatherData} and {@link CacheEntry} objects are only built on read.
+ * Eviction is CLOCK over the slots, bounded by entry count and optionally by total weight; access is
+ * synchronized as in {@link LruWeatherCache}. Writes sweep a few slots each for entries past their stale
+ * window and compact the arrays by moving the last slot into the hole.
+ */
+public class CompactWeatherCache implements WeatherCache {
+    private static final Logger log = LoggerFactory.getLogger(CompactWeatherCache.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SWEEP_BATCH = 4;
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int DATETIME = 0;
+    private static final int SUNRISE = 1;
+    private static final int SUNSET = 2;
+    private static final int ID = 3;
+    private static final int TIMESTAMP = 4;
+    private static final int LAST_ACCESS = 5;
+    private static final int LONGS = 6;
+
+    private static final int TEMP = 0;
+    private static final int FEELS_LIKE = 1;
+    private static final int WIND_SPEED = 2;
+    private static final int DOUBLES = 3;
+
+    private static final int VISIBILITY = 0;
+    private static final int TIMEZONE = 1;
+    private static final int MAIN = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int INTS = 4;
+
+    private final int maxSize;
+    private final long maxWeight;
+    private final CachePolicies policies;
+    private final Ticker ticker;
+    private final WeatherMetrics metrics;
+    private final FrequencySketch sketch;
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private String[] keys;
+    private String[] names;
+    private long[] longs;
+    private double[] doubles;
+    private int[] ints;
+    private boolean[] accessed;
+    private EntryPolicy[] slotPolicies;
+    // Open-addressing index from key to slot + 1; 0 marks an empty bucket
+    private int[] table;
+    private int size;
+    private int hand;
+    private int sweepHand;
+    private long totalWeight;
+
+    public CompactWeatherCache(int maxSize, int ttlMinutes) {
+        this(maxSize, ttlMinutes, WeatherMetrics.NOOP);
+    }
+
+    public CompactWeatherCache(int maxSize, int ttlMinutes, WeatherMetrics metrics) {
+        this(maxSize, 0, CachePolicies.uniform(ttlMinutes, 0), Ticker.SYSTEM, metrics);
+    }
+
+    /**
+     * @param maxWeight limit on the summed weights of all entries, on top of {@code maxSize}; {@code 0} for none
+     */
+    public CompactWeatherCache(int maxSize, long maxWeight, CachePolicies policies, Ticker ticker,
+                               WeatherMetrics metrics) {
+        this.maxSize = Math.max(1, maxSize);
+        this.maxWeight = maxWeight;
+        this.policies = policies;
+        this.ticker = ticker;
+        this.metrics = metrics;
+        this.sketch = new FrequencySketch(this.maxSize);
+        allocate(Math.min(this.maxSize, INITIAL_CAPACITY));
+    }
+
+    @Override
+    public synchronized WeatherData get(String city) {
+        sketch.increment(city);
+        int slot = find(city);
+        if (slot < 0) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        touch(slot, now);
+        if (isExpired(slot, now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+            return null;
+        }
+
+        metrics.cacheHit();
+        log.trace("Hit: {}", city);
+        return decode(slot);
+    }
+
+    @Override
+    public synchronized CacheEntry getEntry(String city) {
+        sketch.increment(city);
+        int slot = find(city);
+        if (slot < 0) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        if (isExpired(slot, now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+        } else {
+            metrics.cacheHit();
+            log.trace("Hit: {}", city);
+        }
+        touch(slot, now);
+        return entry(slot);
+    }
+
+    @Override
+    public synchronized CacheEntry peek(String city) {
+        int slot = find(city);
+        return slot < 0 ? null : entry(slot);
+    }
+
+    @Override
+    public synchronized int frequency(String city) {
+        return sketch.frequency(city);
+    }
+
+    @Override
+    public Ticker ticker() {
+        return ticker;
+    }
+
+    @Override
+    public synchronized void put(String city, WeatherData data) {
+        store(city, data, ticker.read());
+        log.debug("Put: {}", city);
+    }
+
+    @Override
+    public synchronized void restore(String city, WeatherData data, long epochMillis) {
+        store(city, data, ticker.fromEpochMillis(epochMillis));
+        log.debug("Restored: {}", city);
+    }
+
+    @Override
+    public synchronized void cleanUp() {
+        long now = ticker.read();
+        // Backwards, so the slot moved into each hole has already been checked
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (isReclaimable(slot, now)) {
+                metrics.cacheReclaimed();
+                log.debug("Reclaimed expired: {}", keys[slot]);
+                remove(slot);
+            }
+        }
+        sweepHand = 0;
+    }
+
+    @Override
+    public synchronized Map<String, CacheEntry> entries() {
+        Map<String, CacheEntry> out = new LinkedHashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            out.put(keys[slot], entry(slot));
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void clear() {
+        allocate(Math.min(maxSize, INITIAL_CAPACITY));
+        size = 0;
+        hand = 0;
+        sweepHand = 0;
+        totalWeight = 0;
+        sketch.clear();
+        log.info("Cleared manually");
+    }
+
+    @Override
+    public synchronized Map<String, WeatherData> snapshot() {
+        long now = ticker.read();
+        Map<String, WeatherData> out = new LinkedHashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            if (!isExpired(slot, now)) {
+                out.put(keys[slot], decode(slot));
+            }
+        }
+        log.debug("Snapshot size={}", out.size());
+        return out;
+    }
+
+    private void store(String city, WeatherData data, long timestamp) {
+        int slot = find(city);
+        if (slot < 0) {
+            sweep(SWEEP_BATCH);
+            slot = allocateSlot();
+            keys[slot] = city;
+            link(city, slot);
+            longs[slot * LONGS + LAST_ACCESS] = timestamp;
+            accessed[slot] = false;
+        } else {
+            totalWeight -= slotPolicies[slot].weight;
+            // Same rule as CacheEntry.inheritAccess: a refresh keeps the last read time
+            int la = slot * LONGS + LAST_ACCESS;
+            if (timestamp - longs[la] > 0) {
+                longs[la] = timestamp;
+            }
+        }
+
+        int l = slot * LONGS;
+        longs[l + DATETIME] = data.datetime();
+        longs[l + SUNRISE] = data.sys().sunrise();
+        longs[l + SUNSET] = data.sys().sunset();
+        longs[l + ID] = data.id();
+        longs[l + TIMESTAMP] = timestamp;
+
+        int d = slot * DOUBLES;
+        doubles[d + TEMP] = data.temperature().temp();
+        doubles[d + FEELS_LIKE] = data.temperature().feels_like();
+        doubles[d + WIND_SPEED] = data.wind().speed();
+
+        int i = slot * INTS;
+        ints[i + VISIBILITY] = data.visibility();
+        ints[i + TIMEZONE] = data.timezone();
+        ints[i + MAIN] = dictionary.encode(data.weather().main());
+        ints[i + DESCRIPTION] = dictionary.encode(data.weather().description());
+
+        names[slot] = data.name();
+        slotPolicies[slot] = policies.resolve(city, data);
+        totalWeight += slotPolicies[slot].weight;
+
+        while (maxWeight > 0 && totalWeight > maxWeight && size > 1) {
+            slot = evictExcept(slot);
+        }
+    }
+
+    private WeatherData decode(int slot) {
+        int l = slot * LONGS;
+        int d = slot * DOUBLES;
+        int i = slot * INTS;
+        return new WeatherData(
+                new WeatherData.Weather(dictionary.decode(ints[i + MAIN]), dictionary.decode(ints[i + DESCRIPTION])),
+                new WeatherData.Temperature(doubles[d + TEMP], doubles[d + FEELS_LIKE]),
+                ints[i + VISIBILITY],
+                new WeatherData.Wind(doubles[d + WIND_SPEED]),
+                longs[l + DATETIME],
+                new WeatherData.Sys(longs[l + SUNRISE], longs[l + SUNSET]),
+                ints[i + TIMEZONE],
+                names[slot],
+                longs[l + ID]
+        );
+    }
+
+    private CacheEntry entry(int slot) {
+        int l = slot * LONGS;
+        return new CacheEntry(decode(slot), longs[l + TIMESTAMP], longs[l + LAST_ACCESS], slotPolicies[slot]);
+    }
+
+    private boolean isExpired(int slot, long now) {
+        return now - longs[slot * LONGS + TIMESTAMP] > slotPolicies[slot].ttlNanos;
+    }
+
+    private boolean isReclaimable(int slot, long now) {
+        return now - longs[slot * LONGS + TIMESTAMP] > slotPolicies[slot].retentionNanos;
+    }
+
+    private void touch(int slot, long now) {
+        accessed[slot] = true;
+        int la = slot * LONGS + LAST_ACCESS;
+        if (now - longs[la] >= ACCESS_GRANULARITY_NANOS) {
+            longs[la] = now;
+        }
+    }
+
+    @Override
+    public synchronized int evict(int count) {
+        int evicted = 0;
+        while (evicted < count && size > 0) {
+            evictExcept(-1);
+            evicted++;
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    private void sweep(int batch) {
+        long now = ticker.read();
+        for (int i = 0; i < batch && size > 0; i++) {
+            if (sweepHand >= size) {
+                sweepHand = 0;
+            }
+            int slot = sweepHand;
+            if (isReclaimable(slot, now)) {
+                metrics.cacheReclaimed();
+                log.debug("Reclaimed expired: {}", keys[slot]);
+                // The last slot moves into the hole, so the same index is examined again
+                remove(slot);
+            } else {
+                sweepHand++;
+            }
+        }
+    }
+
+    private void remove(int slot) {
+        unlink(keys[slot]);
+        totalWeight -= slotPolicies[slot].weight;
+        int last = --size;
+        if (slot != last) {
+            String moved = keys[last];
+            relink(moved, last, slot);
+            keys[slot] = moved;
+            names[slot] = names[last];
+            System.arraycopy(longs, last * LONGS, longs, slot * LONGS, LONGS);
+            System.arraycopy(doubles, last * DOUBLES, doubles, slot * DOUBLES, DOUBLES);
+            System.arraycopy(ints, last * INTS, ints, slot * INTS, INTS);
+            accessed[slot] = accessed[last];
+            slotPolicies[slot] = slotPolicies[last];
+        }
+        keys[last] = null;
+        names[last] = null;
+        slotPolicies[last] = null;
+        if (hand >= size) {
+            hand = 0;
+        }
+    }
+
+    private int allocateSlot() {
+        if (size == keys.length && size < maxSize) {
+            grow(Math.min(maxSize, size * 2));
+        }
+        if (size == keys.length) {
+            evictExcept(-1);
+        }
+        return size++;
+    }
+
+    /**
+     * Removes one entry chosen by CLOCK: expired slots go first, recently read ones get a second chance.
+     * Returns the index {@code keep} has after the removal compacted the arrays.
+     */
+    private int evictExcept(int keep) {
+        long now = ticker.read();
+        while (true) {
+            if (hand >= size) {
+                hand = 0;
+            }
+            int slot = hand++;
+            if (slot == keep) {
+                continue;
+            }
+            if (accessed[slot] && !isExpired(slot, now)) {
+                accessed[slot] = false;
+                continue;
+            }
+            metrics.cacheEviction();
+            log.info("Evict Least Recently Used : {} (maxSize={})", keys[slot], maxSize);
+            int last = size - 1;
+            remove(slot);
+            return keep == last ? slot : keep;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        names = new String[capacity];
+        longs = new long[capacity * LONGS];
+        doubles = new double[capacity * DOUBLES];
+        ints = new int[capacity * INTS];
+        accessed = new boolean[capacity];
+        slotPolicies = new EntryPolicy[capacity];
+        table = new int[tableSizeFor(capacity)];
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        names = Arrays.copyOf(names, capacity);
+        longs = Arrays.copyOf(longs, capacity * LONGS);
+        doubles = Arrays.copyOf(doubles, capacity * DOUBLES);
+        ints = Arrays.copyOf(ints, capacity * INTS);
+        accessed = Arrays.copyOf(accessed, capacity);
+        slotPolicies = Arrays.copyOf(slotPolicies, capacity);
+        table = new int[tableSizeFor(capacity)];
+        for (int slot = 0; slot < size; slot++) {
+            link(keys[slot], slot);
+        }
+    }
+
+    private int find(String key) {
+        int mask = table.length - 1;
+        for (int b = bucketOf(key, mask); ; b = (b + 1) & mask) {
+            int s = table[b];
+            if (s == 0) {
+                return -1;
+            }
+            if (keys[s - 1].equals(key)) {
+                return s - 1;
+            }
+        }
+    }
+
+    private void link(String key, int slot) {
+        int mask = table.length - 1;
+        int b = bucketOf(key, mask);
+        while (table[b] != 0) {
+            b = (b + 1) & mask;
+        }
+        table[b] = slot + 1;
+    }
+
+    private void relink(String key, int from, int to) {
+        int mask = table.length - 1;
+        int b = bucketOf(key, mask);
+        while (table[b] != from + 1) {
+            b = (b + 1) & mask;
+        }
+        table[b] = to + 1;
+    }
+
+    /**
+     * Linear-probing removal with backward shift, so lookups never need tombstones.
+     */
+    private void unlink(String key) {
+        int mask = table.length - 1;
+        int hole = bucketOf(key, mask);
+        while (!keys[table[hole] - 1].equals(key)) {
+            hole = (hole + 1) & mask;
+        }
+        table[hole] = 0;
+
+        for (int b = (hole + 1) & mask; table[b] != 0; b = (b + 1) & mask) {
+            int home = bucketOf(keys[table[b] - 1], mask);
+            // Move the entry back unless its home lies cyclically in (hole, b]
+            boolean stays = hole <= b ? (home > hole && home <= b) : (home > hole || home <= b);
+            if (!stays) {
+                table[hole] = table[b];
+                table[b] = 0;
+                hole = b;
+            }
+        }
+    }
+
+    private static int bucketOf(String key, int mask) {
+        int h = key.hashCode() * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+    }
+}
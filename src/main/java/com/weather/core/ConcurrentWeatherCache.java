@@ -0,0 +1,286 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Lock-free read path over a {@link ConcurrentHashMap} with CLOCK (second chance) eviction.
+ * Reads only flip a per-entry access bit, writes append new keys to a lock-free queue and
+ * eviction runs under a {@code tryLock} so at most one writer at a time walks the clock.
+ * Each write also inspects a few keys at the head of the clock and drops those past their stale
+ * window, so dead entries are reclaimed in proportion to write traffic instead of waiting for a read.
+ * Capacity is an entry count and, optionally, a total of per-policy entry weights.
+ */
+public class ConcurrentWeatherCache implements WeatherCache {
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentWeatherCache.class);
+
+    private static final int SWEEP_BATCH = 4;
+
+    private final int maxSize;
+    private final long maxWeight;
+    private final CachePolicies policies;
+    private final Ticker ticker;
+    private final WeatherMetrics metrics;
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Queue<String> clock = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Reads go through a striped buffer so hits do not all write the sketch's shared table
+    private final ReadBuffer reads;
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    public ConcurrentWeatherCache(int maxSize, int ttlMinutes) {
+        this(maxSize, ttlMinutes, WeatherMetrics.NOOP);
+    }
+
+    public ConcurrentWeatherCache(int maxSize, int ttlMinutes, WeatherMetrics metrics) {
+        this(maxSize, 0, CachePolicies.uniform(ttlMinutes, 0), Ticker.SYSTEM, metrics);
+    }
+
+    /**
+     * @param maxWeight limit on the summed weights of all entries, on top of {@code maxSize}; {@code 0} for none
+     */
+    public ConcurrentWeatherCache(int maxSize, long maxWeight, CachePolicies policies, Ticker ticker,
+                                  WeatherMetrics metrics) {
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.policies = policies;
+        this.ticker = ticker;
+        this.metrics = metrics;
+        this.reads = new ReadBuffer(new FrequencySketch(maxSize));
+    }
+
+    @Override
+    public WeatherData get(String city) {
+        reads.record(city);
+        CacheEntry entry = cache.get(city);
+        if (entry == null) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        entry.markAccessed(now);
+        // Expired entries stay mapped until swept, overwritten or evicted, so the clock queue never holds orphans
+        if (entry.isExpired(now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+            return null;
+        }
+
+        metrics.cacheHit();
+        log.trace("Hit: {}", city);
+        return entry.getData();
+    }
+
+    @Override
+    public CacheEntry getEntry(String city) {
+        reads.record(city);
+        CacheEntry entry = cache.get(city);
+        if (entry == null) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        if (entry.isExpired(now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+        } else {
+            metrics.cacheHit();
+            log.trace("Hit: {}", city);
+        }
+        entry.markAccessed(now);
+        return entry;
+    }
+
+    @Override
+    public CacheEntry peek(String city) {
+        return cache.get(city);
+    }
+
+    @Override
+    public int frequency(String city) {
+        return reads.frequency(city);
+    }
+
+    @Override
+    public Ticker ticker() {
+        return ticker;
+    }
+
+    @Override
+    public void put(String city, WeatherData data) {
+        store(city, new CacheEntry(data, ticker.read(), policies.resolve(city, data)));
+        log.debug("Put: {}", city);
+    }
+
+    @Override
+    public void restore(String city, WeatherData data, long epochMillis) {
+        store(city, new CacheEntry(data, ticker.fromEpochMillis(epochMillis), policies.resolve(city, data)));
+        log.debug("Restored: {}", city);
+    }
+
+    private void store(String city, CacheEntry entry) {
+        CacheEntry previous = cache.put(city, entry);
+        totalWeight.addAndGet(entry.weight() - (previous != null ? previous.weight() : 0));
+        if (previous != null) {
+            entry.inheritAccess(previous);
+        } else {
+            clock.add(city);
+            sweep(SWEEP_BATCH);
+        }
+        if (overCapacity()) {
+            evict();
+        }
+    }
+
+    private boolean overCapacity() {
+        return cache.size() > maxSize || (maxWeight > 0 && totalWeight.get() > maxWeight);
+    }
+
+    private boolean remove(String key, CacheEntry entry) {
+        if (cache.remove(key, entry)) {
+            totalWeight.addAndGet(-entry.weight());
+            return true;
+        }
+        return false;
+    }
+
+    private void sweep(int batch) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = ticker.read();
+            for (int i = 0; i < batch; i++) {
+                String key = clock.poll();
+                if (key == null) {
+                    return;
+                }
+                CacheEntry entry = cache.get(key);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.isReclaimable(now) && remove(key, entry)) {
+                    metrics.cacheReclaimed();
+                    log.debug("Reclaimed expired: {}", key);
+                } else {
+                    clock.add(key);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            // Never evict the last entry, even if it alone outweighs the limit
+            evictWhile(evicted -> overCapacity() && cache.size() > 1);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int evict(int count) {
+        evictionLock.lock();
+        try {
+            return evictWhile(evicted -> evicted < count && !cache.isEmpty());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    private int evictWhile(IntPredicate more) {
+        long now = ticker.read();
+        int evicted = 0;
+        while (more.test(evicted)) {
+            String key = clock.poll();
+            if (key == null) {
+                break;
+            }
+            CacheEntry entry = cache.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (!entry.isExpired(now) && entry.clearAccessed()) {
+                clock.add(key);
+                continue;
+            }
+            if (remove(key, entry)) {
+                evicted++;
+                metrics.cacheEviction();
+                log.info("Evict Least Recently Used : {} (maxSize={})", key, maxSize);
+            } else {
+                clock.add(key);
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public void cleanUp() {
+        sweep(clock.size());
+    }
+
+    @Override
+    public Map<String, CacheEntry> entries() {
+        return new LinkedHashMap<>(cache);
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            // Puts do not take the lock. Emptying the queue first means a racing put either lands before its
+            // key is removed below or finds the key gone and queues it again, so no entry is left unqueued.
+            // Removing key by key keeps totalWeight right for entries such puts add meanwhile.
+            clock.clear();
+            for (String key : cache.keySet()) {
+                CacheEntry removed = cache.remove(key);
+                if (removed != null) {
+                    totalWeight.addAndGet(-removed.weight());
+                }
+            }
+            reads.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+        log.info("Cleared manually");
+    }
+
+    @Override
+    public Map<String, WeatherData> snapshot() {
+        long now = ticker.read();
+        Map<String, WeatherData> out = new LinkedHashMap<>();
+        for (var e : cache.entrySet()) {
+            if (!e.getValue().isExpired(now)) {
+                out.put(e.getKey(), e.getValue().getData());
+            }
+        }
+        log.debug("Snapshot size={}", out.size());
+        return out;
+    }
+}
@@ -1,38 +1,168 @@
 package com.weather.core;
 
 import com.weather.api.*;
+import com.weather.config.HistoryConfig;
+import com.weather.config.QuotaConfig;
 import com.weather.config.WeatherApiConfig;
 import com.weather.config.WeatherSdkConfig;
+import com.weather.core.QuotaTracker.Priority;
+import com.weather.infra.ResilientWeatherApi;
 import com.weather.infra.WeatherApi;
+import com.weather.metrics.MetricsSnapshot;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import com.weather.util.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class DefaultWeatherClient implements WeatherClient {
     private static final Logger log = LoggerFactory.getLogger(DefaultWeatherClient.class);
 
-    private final Map<String, Object> locks = new ConcurrentHashMap<>();
     private final WeatherApiConfig apiConfig;
     private final WeatherApi api;
+    // For calls a user waits on: does not sit out long rate-limit backoffs
+    private final WeatherApi userApi;
     private final WeatherCache cache;
+    private final Ticker ticker;
+    private final LocationKeys locationKeys;
+    private final SharedCacheTier sharedTier;
+    private final WeatherMetrics metrics;
+    private final SingleFlight<WeatherData> inFlight;
     private final WorkMode mode;
+    private final int batchConcurrency;
     private final PollingScheduler scheduler;
+    private final CacheSnapshotStore snapshotStore;
+    private final TenantPool pool;
+    private final QuotaTracker quota;
+    private final GroupBatcher batcher;
+    private final ChangeNotifier notifier;
+    private final WeatherHistory history;
+    // Prepended to cache keys to get the notifier's and history's keys; tenants of a pool share both
+    private final String watchPrefix;
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
     public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig) {
+        this(apiConfig, api, sdkConfig, WeatherMetrics.NOOP);
+    }
+
+    public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                WeatherMetrics metrics) {
+        this(apiConfig, api, sdkConfig, metrics, null);
+    }
+
+    public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                WeatherMetrics metrics, SharedCacheStore sharedStore) {
+        this(apiConfig, api, sdkConfig, metrics, sharedStore, Ticker.SYSTEM);
+    }
+
+    public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                WeatherMetrics metrics, SharedCacheStore sharedStore, Ticker ticker) {
+        this(apiConfig, api, sdkConfig, metrics, sharedStore, ticker, QuotaConfig.unlimited());
+    }
+
+    public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                WeatherMetrics metrics, SharedCacheStore sharedStore, Ticker ticker, QuotaConfig quota) {
+        this(apiConfig, api, sdkConfig, metrics, sharedStore, ticker, quota, HistoryConfig.disabled());
+    }
+
+    /**
+     * @param history size of the history of refreshed and fetched observations queried by {@link #history}
+     */
+    public DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                WeatherMetrics metrics, SharedCacheStore sharedStore, Ticker ticker, QuotaConfig quota,
+                                HistoryConfig history) {
+        this(apiConfig, api, sdkConfig, metrics, sharedStore, ticker, quota, history, null);
+    }
+
+    /**
+     * A tenant of {@code pool}: it works on the pool's cache partition for its units and language and leaves
+     * polling to the pool's scheduler.
+     */
+    DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, TenantPool pool) {
+        this(apiConfig, api, pool.sdkConfig(), pool.metrics(), null, pool.cache().ticker(), pool.quota(),
+                HistoryConfig.disabled(), pool);
+    }
+
+    private DefaultWeatherClient(WeatherApiConfig apiConfig, WeatherApi api, WeatherSdkConfig sdkConfig,
+                                 WeatherMetrics metrics, SharedCacheStore sharedStore, Ticker ticker,
+                                 QuotaConfig quota, HistoryConfig history, TenantPool pool) {
         this.apiConfig = apiConfig;
+        this.history = pool != null ? pool.history() : history.enabled() ? new WeatherHistory(history) : null;
+        this.pool = pool;
+        this.quota = quota.enabled() ? new QuotaTracker(apiConfig.apiKey(), quota, metrics) : null;
+        if (this.quota != null && api instanceof ResilientWeatherApi resilient) {
+            // Every retry is another upstream call; retries never eat into the share reserved for users
+            QuotaTracker tracker = this.quota;
+            resilient.retryPermits(() -> tracker.tryAcquire(Priority.BACKGROUND));
+        }
+        this.userApi = api instanceof ResilientWeatherApi resilient ? resilient.interactive() : api;
+        this.batcher = sdkConfig.batchWindowMillis() > 0 && api.supportsGroup()
+                ? new GroupBatcher(api, userApi, this.quota, sdkConfig.batchWindowMillis())
+                : null;
         this.api = api;
-        this.cache = new WeatherCache(sdkConfig.cacheSize(), sdkConfig.ttlMinutes());
+        this.metrics = metrics;
+        this.inFlight = pool != null
+                ? pool.inFlight(TenantPool.namespaceOf(apiConfig))
+                : new SingleFlight<>(metrics::coalescedWait);
+        this.ticker = ticker;
+        CachePolicies policies = pool != null ? pool.policies() : CachePolicies.of(sdkConfig);
+        this.cache = pool != null
+                ? pool.cache().partition(TenantPool.namespaceOf(apiConfig))
+                : WeatherCache.create(sdkConfig.cacheType(), sdkConfig.cacheSize(), sdkConfig.maxWeight(),
+                        policies, ticker, metrics);
+        this.locationKeys = pool != null
+                ? pool.locationKeys(TenantPool.namespaceOf(apiConfig))
+                : new LocationKeys(sdkConfig.geoCellDegrees(), Math.max(1024, sdkConfig.cacheSize() * 4));
         this.mode = sdkConfig.workMode();
-        this.scheduler = (mode == WorkMode.POLLING)
-                ? new PollingScheduler(cache, api)
+        this.batchConcurrency = sdkConfig.batchConcurrency();
+        this.notifier = pool != null ? pool.notifier() : new ChangeNotifier();
+        this.watchPrefix = pool != null ? TenantCache.globalKey(TenantPool.namespaceOf(apiConfig), "") : "";
+        this.sharedTier = sharedStore != null
+                ? new SharedCacheTier(sharedStore, apiConfig.units() + ":" + apiConfig.lang() + ":",
+                        policies, ticker, metrics)
+                : null;
+
+        if (pool == null && sdkConfig.snapshotPath() != null && !sdkConfig.snapshotPath().isBlank()) {
+            this.snapshotStore = new CacheSnapshotStore(Path.of(sdkConfig.snapshotPath()), cache, locationKeys);
+            snapshotStore.restore(TimeUnit.NANOSECONDS.toMillis(policies.maxRetentionNanos()));
+            snapshotStore.start(sdkConfig.snapshotIntervalMinutes());
+        } else {
+            this.snapshotStore = null;
+        }
+
+        this.scheduler = (pool == null && mode == WorkMode.POLLING)
+                ? new PollingScheduler(cache, this::refresh, groupRefresher(), metrics,
+                        sdkConfig.pollingThreads(), sdkConfig.callsPerMinute(),
+                        sdkConfig.pollMinReads(), sdkConfig.pollIdleMinutes())
                 : null;
 
         if (scheduler != null) {
-            scheduler.start(sdkConfig.ttlMinutes());
-            log.info("Started in POLLING mode (TTL={} min)", sdkConfig.ttlMinutes());
+            scheduler.watch(notifier::isWatched);
+            // The tightest policy sets the pace; entries with longer TTLs are skipped until they are due
+            int intervalMinutes = (int) Math.max(1, TimeUnit.NANOSECONDS.toMinutes(policies.minTtlNanos()));
+            scheduler.start(intervalMinutes);
+            log.info("Started in POLLING mode (TTL={} min, polling every {} min)", sdkConfig.ttlMinutes(), intervalMinutes);
+        } else if (pool != null) {
+            log.info("Joined tenant pool (namespace={})", TenantPool.namespaceOf(apiConfig));
         } else {
             log.info("Started in ON_DEMAND mode");
         }
@@ -40,34 +170,435 @@ public class DefaultWeatherClient implements WeatherClient {
 
     @Override
     public WeatherData getWeather(String city) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(city), "weather for '" + city + "'");
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        return getWeatherAsync(Location.city(city));
+    }
+
+    @Override
+    public WeatherData getWeather(Location location) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(location), "weather for " + location);
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(Location location) {
         if (closed.get()) {
-            throw new WeatherSdkException("WeatherClient is already closed");
+            return CompletableFuture.failedFuture(new WeatherSdkException("WeatherClient is already closed"));
+        }
+
+        String key;
+        try {
+            key = locationKeys.keyOf(location);
+        } catch (WeatherSdkException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
-        WeatherData cached = cache.get(city);
+        CacheEntry cached = lookup(key, location);
         if (cached != null) {
-            log.debug("Cache hit for city '{}'", city);
-            return cached;
+            return CompletableFuture.completedFuture(cached.getData());
         }
+        return load(key, location);
+    }
+
+    /**
+     * Fetches a key the caller has already looked up and missed, so the miss is not recorded again.
+     */
+    private CompletableFuture<WeatherData> load(String key, Location location) {
+        return inFlight.execute(key, () -> {
+            // Peek: get() would drop an expired entry that serveStale may still need if the fetch fails
+            CacheEntry again = cache.peek(key);
+            if (again != null && !again.isExpired(ticker.read())) {
+                log.debug("Cache hit after wait for '{}'", key);
+                return CompletableFuture.completedFuture(again.getData());
+            }
+            return fetch(key, location, Priority.USER);
+        });
+    }
 
-        Object lock = locks.computeIfAbsent(city, k -> new Object());
-        synchronized (lock) {
+    /**
+     * Serves fresh entries directly. Entries past the refresh-ahead point, or expired but still inside
+     * the max-staleness window, are served as well while a single background refresh is started.
+     * All thresholds come from the policy the entry was written with.
+     */
+    private CacheEntry lookup(String key, Location location) {
+        CacheEntry entry = cache.getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+
+        EntryPolicy policy = entry.policy();
+        long age = ticker.read() - entry.getWriteTime();
+        if (age <= policy.refreshAheadNanos) {
+            log.debug("Cache hit for city '{}'", key);
+            return entry;
+        }
+        if (age <= policy.ttlNanos) {
+            metrics.refreshAhead();
+            log.debug("Cache hit for city '{}', refreshing ahead of expiry", key);
+        } else if (age <= policy.retentionNanos) {
+            metrics.cacheStaleHit();
+            log.debug("Serving stale data for city '{}' ({} ms past TTL)", key,
+                    TimeUnit.NANOSECONDS.toMillis(age - policy.ttlNanos));
+        } else {
+            return null;
+        }
+
+        // A call already in flight for the key is joined without counting a coalesced wait; nobody waits here
+        inFlight.executeInBackground(key, () -> fetch(key, location, Priority.BACKGROUND))
+                .whenComplete((fresh, error) -> {
+                    if (error != null) {
+                        log.warn("Background refresh failed for '{}': {}", key,
+                                FutureUtils.unwrap(error).getMessage());
+                    }
+                });
+        return entry;
+    }
+
+    CompletableFuture<WeatherData> refresh(String key) {
+        return inFlight.executeInBackground(key,
+                () -> fetch(key, locationKeys.locationOf(key), Priority.BACKGROUND));
+    }
+
+    /**
+     * Goes to the shared cache, then upstream. A name another node has already resolved is followed to its
+     * ID key there, so the city's entry is shared however it was first looked up.
+     */
+    private CompletableFuture<WeatherData> fetch(String key, Location location, Priority priority) {
+        if (sharedTier == null) {
+            return fetchUpstream(key, location, priority);
+        }
+        if (!locationKeys.isNameKey(key)) {
+            return fetchShared(key, location, priority);
+        }
+        return sharedTier.readAlias(key).thenCompose(idKey -> {
+            if (idKey == null || !locationKeys.isIdKey(idKey)) {
+                return fetchShared(key, location, priority);
+            }
+            locationKeys.alias(key, idKey);
+            Location byId = locationKeys.locationOf(idKey);
+            // The ID's entry may still be here although this node had forgotten the name
+            CacheEntry cached = lookup(idKey, byId);
+            return cached != null
+                    ? CompletableFuture.completedFuture(cached.getData())
+                    : fetchShared(idKey, byId, priority);
+        });
+    }
+
+    /**
+     * Adopts the shared cache's copy when it is newer than ours and still fresh, otherwise goes upstream.
+     * With a cold or expired local entry any unexpired shared copy is good enough; for refreshes it must
+     * not be due for refresh itself, which means another node has just refreshed it.
+     */
+    private CompletableFuture<WeatherData> fetchShared(String key, Location location, Priority priority) {
+        CacheEntry local = cache.peek(key);
+        boolean localUsable = local != null && !local.isExpired(ticker.read());
+        return sharedTier.read(key).thenCompose(shared -> {
+            if (shared != null
+                    && (local == null || shared.getWriteTime() - local.getWriteTime() > 0)
+                    && ticker.read() - shared.getWriteTime() <= (localUsable
+                        ? shared.policy().refreshAheadNanos
+                        : shared.policy().ttlNanos)) {
+                metrics.sharedCacheHit();
+                cache.restore(key, shared.getData(), ticker.toEpochMillis(shared.getWriteTime()));
+                if (history != null) {
+                    history.append(watchPrefix + key, shared.getData());
+                }
+                notifier.publish(watchPrefix + key, shared.getData());
+                log.debug("Adopted shared cache entry for '{}'", key);
+                return CompletableFuture.completedFuture(shared.getData());
+            }
+            return fetchUpstream(key, location, priority);
+        });
+    }
+
+    /**
+     * Calls OpenWeather if the key's quota admits a call of this priority. Calls the upstream or the quota
+     * refuses are answered from any cached copy.
+     */
+    private CompletableFuture<WeatherData> fetchUpstream(String key, Location location, Priority priority) {
+        boolean byName = locationKeys.isNameKey(key);
+        // Aliased names are fetched by ID and coordinates by cell centre, so every request for the key is identical
+        Location upstream = byName
+                ? Location.city(((Location.City) location).name().trim())
+                : locationKeys.locationOf(key);
+
+        CompletableFuture<WeatherData> call;
+        if (batcher != null && upstream instanceof Location.CityId id) {
+            // The batcher takes one quota permit per group call
+            call = batcher.fetch(id.id(), priority);
+        } else if (quota != null && !quota.tryAcquire(priority)) {
+            return serveStale(key, new UpstreamUnavailableException("OpenWeather API quota used up for this key",
+                    Duration.ofMillis(quota.millisUntilAvailable(priority))));
+        } else {
+            call = (priority == Priority.USER ? userApi : api).getWeatherAsync(upstream);
+        }
+
+        log.info("Fetching fresh data for '{}'", key);
+        return call.thenApply(fresh -> {
+            String storeKey = key;
+            if (byName && fresh.id() > 0) {
+                storeKey = locationKeys.idKey(fresh.id());
+                locationKeys.alias(key, storeKey);
+                if (sharedTier != null) {
+                    sharedTier.writeAlias(key, storeKey);
+                }
+            }
+            store(storeKey, fresh);
+            return fresh;
+        }).exceptionallyCompose(error -> serveStale(key, error));
+    }
+
+    /**
+     * Refreshes {@code id:} keys with one group call. IDs missing from the response keep their current entry.
+     */
+    CompletableFuture<Void> refreshGroup(List<String> keys) {
+        if (quota != null && !quota.tryAcquire(Priority.BACKGROUND)) {
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                    "OpenWeather API quota used up for this key",
+                    Duration.ofMillis(quota.millisUntilAvailable(Priority.BACKGROUND))));
+        }
+
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ids.add(((Location.CityId) locationKeys.locationOf(key)).id());
+        }
+        log.info("Fetching fresh data for {} cities in one call", ids.size());
+        return api.getWeatherGroupAsync(ids).thenAccept(results -> {
+            for (long id : ids) {
+                WeatherData fresh = results.get(id);
+                if (fresh != null) {
+                    store(locationKeys.idKey(id), fresh);
+                } else {
+                    log.warn("No data for city id {} in group response", id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Lets the scheduler pack {@code id:} keys into group calls when the API has a group endpoint.
+     */
+    PollingScheduler.GroupRefresher groupRefresher() {
+        if (!api.supportsGroup()) {
+            return null;
+        }
+        return new PollingScheduler.GroupRefresher() {
+            @Override
+            public String groupOf(String key) {
+                return canGroup(key) ? "" : null;
+            }
+
+            @Override
+            public CompletableFuture<?> refresh(List<String> keys) {
+                return refreshGroup(keys);
+            }
+        };
+    }
+
+    boolean canGroup(String key) {
+        return api.supportsGroup() && locationKeys.isIdKey(key);
+    }
+
+    private void store(String key, WeatherData fresh) {
+        cache.put(key, fresh);
+        if (sharedTier != null) {
+            sharedTier.write(key, fresh, System.currentTimeMillis());
+        }
+        if (history != null) {
+            history.append(watchPrefix + key, fresh);
+        }
+        notifier.publish(watchPrefix + key, fresh);
+        log.debug("Stored '{}' in cache", key);
+    }
+
+    private CompletableFuture<WeatherData> serveStale(String key, Throwable error) {
+        // The upstream is shedding load or we are out of quota, so any cached copy beats an error
+        CacheEntry stale = cache.peek(key);
+        if (stale != null && FutureUtils.unwrap(error) instanceof UpstreamUnavailableException) {
+            metrics.cacheStaleHit();
+            log.warn("Upstream unavailable, serving '{}' cached {} s ago", key, stale.ageMillis(ticker.read()) / 1000);
+            return CompletableFuture.completedFuture(stale.getData());
+        }
+        return CompletableFuture.failedFuture(error);
+    }
+
+    @Override
+    public WeatherBatchResult getWeather(Collection<String> cities) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(cities), "weather for " + cities.size() + " cities");
+    }
+
+    @Override
+    public CompletableFuture<WeatherBatchResult> getWeatherAsync(Collection<String> cities) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new WeatherSdkException("WeatherClient is already closed"));
+        }
+
+        Set<String> requested = new LinkedHashSet<>(cities);
+        Map<String, WeatherData> results = new ConcurrentHashMap<>();
+        Map<String, WeatherSdkException> failures = new ConcurrentHashMap<>();
+        // Missed cities with their keys, so the fan-out does not look them up (and count them) again
+        Map<String, String> misses = new LinkedHashMap<>();
+
+        for (String city : requested) {
+            if (city == null || city.isBlank()) {
+                failures.put(String.valueOf(city), new WeatherSdkException("City must not be blank"));
+                continue;
+            }
+            Location location = Location.city(city);
+            String key;
+            CacheEntry cached;
             try {
-                cached = cache.get(city);
-                if (cached != null) {
-                    log.debug("Cache hit after wait for '{}'", city);
-                    return cached;
+                key = locationKeys.keyOf(location);
+                cached = lookup(key, location);
+            } catch (WeatherSdkException e) {
+                failures.put(city, e);
+                continue;
+            }
+            if (cached != null) {
+                results.put(city, cached.getData());
+            } else {
+                misses.put(city, key);
+            }
+        }
+        log.debug("Batch of {} cities: {} cached, {} to fetch", requested.size(), results.size(), misses.size());
+
+        return FanOut.run(new ArrayList<>(misses.keySet()), batchConcurrency, city ->
+                load(misses.get(city), Location.city(city)).whenComplete((data, error) -> {
+                    if (error != null) {
+                        failures.put(city, FutureUtils.toSdkException(error, "weather for '" + city + "'"));
+                    } else {
+                        results.put(city, data);
+                    }
+                })).thenApply(ignored -> {
+            Map<String, WeatherData> ordered = new LinkedHashMap<>();
+            Map<String, WeatherSdkException> orderedFailures = new LinkedHashMap<>();
+            for (String city : requested) {
+                String key = String.valueOf(city);
+                if (results.containsKey(key)) {
+                    ordered.put(key, results.get(key));
+                } else if (failures.containsKey(key)) {
+                    orderedFailures.put(key, failures.get(key));
                 }
+            }
+            return new WeatherBatchResult(ordered, orderedFailures);
+        });
+    }
+
+    @Override
+    public byte[] getWeatherJson(String city) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherJsonAsync(city), "weather for '" + city + "'");
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getWeatherJsonAsync(String city) {
+        // A copy, so callers cannot corrupt the bytes the cache hands out
+        return jsonAsync(Location.city(city)).thenApply(byte[]::clone);
+    }
+
+    /**
+     * Writes the city's weather as compact JSON straight from the cached encoding; a cache hit costs one
+     * write of the stored bytes.
+     */
+    @Override
+    public void writeWeather(String city, OutputStream out) throws WeatherSdkException, IOException {
+        out.write(FutureUtils.await(jsonAsync(Location.city(city)), "weather for '" + city + "'"));
+    }
+
+    /**
+     * The encoded entry for the location, shared with the cache. Misses go through {@link #getWeatherAsync}
+     * and pick up the entry they stored, so its encoding is made once and reused by later hits.
+     */
+    private CompletableFuture<byte[]> jsonAsync(Location location) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new WeatherSdkException("WeatherClient is already closed"));
+        }
+
+        String key;
+        try {
+            key = locationKeys.keyOf(location);
+        } catch (WeatherSdkException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CacheEntry cached = lookup(key, location);
+        if (cached != null) {
+            try {
+                return CompletableFuture.completedFuture(cached.json());
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(
+                        new WeatherSdkException("Failed to encode weather for " + location, e));
+            }
+        }
 
-                log.info("Fetching fresh data for city '{}'", city);
-                WeatherData fresh = api.getWeather(city);
-                cache.put(city, fresh);
-                log.debug("Stored '{}' in cache", city);
-                return fresh;
-            } finally {
-                locks.remove(city);
+        return getWeatherAsync(location).thenApply(data -> {
+            CacheEntry stored = cache.peek(key);
+            try {
+                return stored != null && stored.getData() == data
+                        ? stored.json()
+                        : JsonUtils.toJsonBytes(data);
+            } catch (IOException e) {
+                throw new CompletionException(new WeatherSdkException("Failed to encode weather for " + location, e));
             }
+        });
+    }
+
+    /**
+     * Updates of the city from now on: one item per refresh or fetch that changed the data, delivered on the
+     * notifier's threads. Use {@link #getWeather(String)} for the current value.
+     */
+    @Override
+    public Flow.Publisher<WeatherData> subscribe(String city) throws WeatherSdkException {
+        WeatherData current = getWeather(city);
+        return notifier.publisher(watchKey(city), current);
+    }
+
+    /**
+     * Runs {@code listener} for each update of the city until the returned future is cancelled.
+     */
+    @Override
+    public CompletableFuture<Void> subscribe(String city, Consumer<? super WeatherData> listener)
+            throws WeatherSdkException {
+        WeatherData current = getWeather(city);
+        return notifier.consume(watchKey(city), current, listener);
+    }
+
+    /**
+     * The key updates of a loaded city are stored under; loading has resolved a name to its city ID.
+     */
+    private String watchKey(String city) throws WeatherSdkException {
+        return watchPrefix + locationKeys.keyOf(Location.city(city));
+    }
+
+    @Override
+    public boolean history(String city, WeatherHistory.Series series, Duration window,
+                           WeatherHistory.Aggregate out) throws WeatherSdkException {
+        return history(Location.city(city), series, window, out);
+    }
+
+    @Override
+    public boolean history(Location location, WeatherHistory.Series series, Duration window,
+                           WeatherHistory.Aggregate out) throws WeatherSdkException {
+        if (history == null) {
+            return false;
         }
+        long from = System.currentTimeMillis() / 1000 - window.toSeconds();
+        return history.aggregate(watchPrefix + locationKeys.keyOf(location), series, from, out);
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    public long upstreamCalls() {
+        return inFlight.issuedCount();
+    }
+
+    public long coalescedCalls() {
+        return inFlight.coalescedCount();
     }
 
     @Override
@@ -77,7 +608,19 @@ public class DefaultWeatherClient implements WeatherClient {
                 log.info("Shutting down scheduler...");
                 scheduler.close();
             }
-            cache.clear();
+            if (snapshotStore != null) {
+                snapshotStore.close();
+            }
+            if (pool != null) {
+                // The partition is shared with other tenants of the same namespace
+                pool.release(this);
+            } else {
+                notifier.close();
+                cache.clear();
+                if (history != null) {
+                    history.clear();
+                }
+            }
             WeatherClientRegistry.remove(apiConfig.apiKey());
             log.info("Closed safely (apiKey={})", apiConfig.apiKey());
         } else {
@@ -0,0 +1,18 @@
+package com.weather.core;
+
+/**
+ * Settings resolved for one cache key, shared by every entry the same {@link CachePolicies} rule matched.
+ */
+final class EntryPolicy {
+    final long ttlNanos;
+    final long refreshAheadNanos;
+    final long retentionNanos;
+    final int weight;
+
+    EntryPolicy(long ttlNanos, long refreshAheadNanos, long retentionNanos, int weight) {
+        this.ttlNanos = ttlNanos;
+        this.refreshAheadNanos = refreshAheadNanos;
+        this.retentionNanos = retentionNanos;
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,68 @@
+package com.weather.core;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an async task for every item with at most {@code parallelism} tasks outstanding.
+ * The returned future completes once every task has completed, successfully or not.
+ */
+final class FanOut<T> {
+
+    private final List<T> items;
+    private final Function<T, CompletableFuture<?>> task;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private FanOut(List<T> items, Function<T, CompletableFuture<?>> task) {
+        this.items = items;
+        this.task = task;
+        this.remaining = new AtomicInteger(items.size());
+    }
+
+    static <T> CompletableFuture<Void> run(List<T> items, int parallelism, Function<T, CompletableFuture<?>> task) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        FanOut<T> fanOut = new FanOut<>(items, task);
+        int lanes = Math.max(1, Math.min(parallelism, items.size()));
+        for (int i = 0; i < lanes; i++) {
+            fanOut.next();
+        }
+        return fanOut.done;
+    }
+
+    private void next() {
+        while (true) {
+            int i = cursor.getAndIncrement();
+            if (i >= items.size()) {
+                return;
+            }
+
+            CompletableFuture<?> future;
+            try {
+                future = task.apply(items.get(i));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            if (!future.isDone()) {
+                future.whenComplete((r, e) -> {
+                    completeOne();
+                    next();
+                });
+                return;
+            }
+            completeOne();
+        }
+    }
+
+    private void completeOne() {
+        if (remaining.decrementAndGet() == 0) {
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.weather.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link SharedCacheStore} backed by a local directory, one file per key, so several processes on the
+ * same host (or tests) can share a second-level cache without a remote store.
+ */
+public class FileSharedCacheStore implements SharedCacheStore {
+    private static final Logger log = LoggerFactory.getLogger(FileSharedCacheStore.class);
+
+    private final Path directory;
+
+    public FileSharedCacheStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String key) {
+        Path file = fileOf(key);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < Long.BYTES) {
+                // Not written by put(), which always writes the expiry header
+                log.warn("Ignoring truncated shared cache entry '{}' ({} bytes)", key, buffer.remaining());
+                return CompletableFuture.completedFuture(null);
+            }
+            if (buffer.getLong() < System.currentTimeMillis()) {
+                Files.deleteIfExists(file);
+                return CompletableFuture.completedFuture(null);
+            }
+            byte[] value = new byte[buffer.remaining()];
+            buffer.get(value);
+            return CompletableFuture.completedFuture(value);
+        } catch (NoSuchFileException e) {
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            log.warn("Could not read shared cache entry '{}': {}", key, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] value, Duration ttl) {
+        Path file = fileOf(key);
+        Path tmp = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + value.length);
+            buffer.putLong(System.currentTimeMillis() + ttl.toMillis()).put(value);
+            tmp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.write(tmp, buffer.array());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            // Already moved into place unless something failed
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path tmp) {
+        if (tmp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            log.debug("Could not delete temp file {}: {}", tmp, e.getMessage());
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(HexFormat.of().formatHex(key.getBytes(StandardCharsets.UTF_8)) + ".bin");
+    }
+}
@@ -0,0 +1,80 @@
+package com.weather.core;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch of recent read counts per key, in the style of TinyLFU: four rows of small saturating
+ * counters, halved every {@code 10 * width} increments so old popularity decays away. Updates are
+ * deliberately unsynchronized; a lost increment under contention only makes an estimate slightly low.
+ */
+final class FrequencySketch {
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final int[] table;
+    private final int width;
+    private final int shift;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedKeys) {
+        int w = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.width = w;
+        this.shift = 64 - Integer.numberOfTrailingZeros(w);
+        this.table = new int[DEPTH * w];
+        this.sampleSize = 10 * w;
+    }
+
+    int frequency(String key) {
+        long hash = spread(key.hashCode());
+        int min = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table[index(hash, row)]);
+        }
+        return min;
+    }
+
+    void increment(String key) {
+        increment(key.hashCode());
+    }
+
+    void increment(int hashCode) {
+        long hash = spread(hashCode);
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int i = index(hash, row);
+            if (table[i] < MAX_FREQUENCY) {
+                table[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+        additions = 0;
+    }
+
+    private void age() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+        additions = 0;
+    }
+
+    private int index(long hash, int row) {
+        return row * width + (int) ((hash * SEEDS[row]) >>> shift);
+    }
+
+    private static long spread(int hashCode) {
+        long h = hashCode * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 32);
+    }
+}
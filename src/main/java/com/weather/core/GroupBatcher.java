@@ -0,0 +1,116 @@
+package com.weather.core;
+
+import com.weather.api.Location;
+import com.weather.api.UpstreamUnavailableException;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.core.QuotaTracker.Priority;
+import com.weather.infra.WeatherApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batches fetches by city ID: the first fetch opens a batch, fetches arriving within the window join
+ * it, and the batch goes out as one group call when the window closes or it is full. Each batch takes one
+ * quota permit, at user priority if any fetch in it is user-facing.
+ */
+final class GroupBatcher {
+    private static final Logger log = LoggerFactory.getLogger(GroupBatcher.class);
+
+    private final WeatherApi api;
+    private final WeatherApi userApi;
+    private final QuotaTracker quota;
+    private final Executor timer;
+    private Batch open;
+
+    /**
+     * @param userApi used for batches with a user-facing fetch in them
+     */
+    GroupBatcher(WeatherApi api, WeatherApi userApi, QuotaTracker quota, long windowMillis) {
+        this.api = api;
+        this.userApi = userApi;
+        this.quota = quota;
+        this.timer = CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    CompletableFuture<WeatherData> fetch(long id, Priority priority) {
+        Batch full = null;
+        CompletableFuture<WeatherData> result;
+        synchronized (this) {
+            if (open == null) {
+                Batch batch = new Batch();
+                open = batch;
+                timer.execute(() -> flush(batch));
+            }
+            result = open.futures.computeIfAbsent(id, k -> new CompletableFuture<>());
+            if (priority == Priority.USER) {
+                open.priority = Priority.USER;
+            }
+            if (open.futures.size() == WeatherApi.MAX_GROUP_SIZE) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return result;
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (open != batch) {
+                return;
+            }
+            open = null;
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        if (quota != null && !quota.tryAcquire(batch.priority)) {
+            UpstreamUnavailableException error = new UpstreamUnavailableException(
+                    "OpenWeather API quota used up for this key",
+                    Duration.ofMillis(quota.millisUntilAvailable(batch.priority)));
+            batch.futures.values().forEach(f -> f.completeExceptionally(error));
+            return;
+        }
+
+        WeatherApi api = batch.priority == Priority.USER ? userApi : this.api;
+        if (batch.futures.size() == 1) {
+            Map.Entry<Long, CompletableFuture<WeatherData>> only = batch.futures.entrySet().iterator().next();
+            api.getWeatherAsync(Location.id(only.getKey())).whenComplete((data, error) -> {
+                if (error != null) {
+                    only.getValue().completeExceptionally(error);
+                } else {
+                    only.getValue().complete(data);
+                }
+            });
+            return;
+        }
+
+        log.debug("Sending {} batched fetches as one group call", batch.futures.size());
+        api.getWeatherGroupAsync(batch.futures.keySet()).whenComplete((results, error) ->
+                batch.futures.forEach((id, future) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else if (results.containsKey(id)) {
+                        future.complete(results.get(id));
+                    } else {
+                        future.completeExceptionally(new WeatherSdkException("No weather data for city id " + id));
+                    }
+                }));
+    }
+
+    private static final class Batch {
+        private final Map<Long, CompletableFuture<WeatherData>> futures = new LinkedHashMap<>();
+        private Priority priority = Priority.BACKGROUND;
+    }
+}
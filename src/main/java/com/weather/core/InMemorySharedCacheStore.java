@@ -0,0 +1,35 @@
+package com.weather.core;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process {@link SharedCacheStore} for tests and single-JVM setups with several clients.
+ */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private final Map<String, Value> values = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<byte[]> get(String key) {
+        Value value = values.get(key);
+        if (value == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (value.expiresAt() < System.currentTimeMillis()) {
+            values.remove(key, value);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.completedFuture(value.bytes());
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] value, Duration ttl) {
+        values.put(key, new Value(value, System.currentTimeMillis() + ttl.toMillis()));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private record Value(byte[] bytes, long expiresAt) {}
+}
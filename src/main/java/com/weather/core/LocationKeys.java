@@ -0,0 +1,175 @@
+package com.weather.core;
+
+import com.weather.api.Location;
+import com.weather.api.WeatherSdkException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Maps every {@link Location} to a single cache key and back.
+ * <ul>
+ *     <li>names are normalized ({@code " London ,GB"} and {@code "london, gb"} become {@code london,gb}); a name
+ *     that would read as one of the other keys gets a {@code name:} prefix</li>
+ *     <li>city IDs become {@code id:<id>}</li>
+ *     <li>coordinates snap to a grid cell packed into one long, {@code geo:<hex>}, so nearby points share an entry</li>
+ * </ul>
+ * Names that resolved to a city ID are remembered as aliases, so later lookups of any spelling hit the ID entry.
+ * Past {@code maxAliases} the oldest alias not used since it was last considered is forgotten (second chance),
+ * so names in use keep resolving while the table stays bounded.
+ */
+public class LocationKeys {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String GEO_PREFIX = "geo:";
+    private static final String NAME_PREFIX = "name:";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMMA = Pattern.compile("\\s*,\\s*");
+
+    private final double cellDegrees;
+    private final int maxAliases;
+    private final Map<String, Alias> aliases = new ConcurrentHashMap<>();
+    // Insertion order of aliases, for eviction
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    public LocationKeys(double cellDegrees, int maxAliases) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("cellDegrees must be positive: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.maxAliases = maxAliases;
+    }
+
+    public String keyOf(Location location) throws WeatherSdkException {
+        if (location instanceof Location.City city) {
+            if (city.name() == null || city.name().isBlank()) {
+                throw new WeatherSdkException("City must not be blank");
+            }
+            String name = nameKey(normalizeName(city.name()));
+            Alias alias = aliases.get(name);
+            if (alias == null) {
+                return name;
+            }
+            if (!alias.referenced) {
+                alias.referenced = true;
+            }
+            return alias.idKey;
+        }
+        if (location instanceof Location.CityId id) {
+            if (id.id() <= 0) {
+                throw new WeatherSdkException("City ID must be positive: " + id.id());
+            }
+            return idKey(id.id());
+        }
+        if (location instanceof Location.Coordinates c) {
+            if (!Double.isFinite(c.lat()) || !Double.isFinite(c.lon())
+                    || c.lat() < -90 || c.lat() > 90 || c.lon() < -180 || c.lon() > 180) {
+                throw new WeatherSdkException("Coordinates out of range: " + c.lat() + "," + c.lon());
+            }
+            return GEO_PREFIX + Long.toHexString(cellOf(c.lat(), c.lon()));
+        }
+        throw new WeatherSdkException("Unsupported location: " + location);
+    }
+
+    /**
+     * The location to request upstream for a cache key. Grid keys resolve to the cell centre.
+     */
+    public Location locationOf(String key) {
+        if (key.startsWith(ID_PREFIX)) {
+            return Location.id(Long.parseLong(key.substring(ID_PREFIX.length())));
+        }
+        if (key.startsWith(GEO_PREFIX)) {
+            long cell = Long.parseUnsignedLong(key.substring(GEO_PREFIX.length()), 16);
+            int latIndex = (int) (cell >>> 32);
+            int lonIndex = (int) cell;
+            return Location.coordinates(
+                    round(Math.min(90, (latIndex + 0.5) * cellDegrees - 90)),
+                    round(Math.min(180, (lonIndex + 0.5) * cellDegrees - 180)));
+        }
+        if (key.startsWith(NAME_PREFIX)) {
+            return Location.city(key.substring(NAME_PREFIX.length()));
+        }
+        return Location.city(key);
+    }
+
+    public String idKey(long id) {
+        return ID_PREFIX + id;
+    }
+
+    public boolean isIdKey(String key) {
+        return key.startsWith(ID_PREFIX);
+    }
+
+    public boolean isNameKey(String key) {
+        return !key.startsWith(ID_PREFIX) && !key.startsWith(GEO_PREFIX);
+    }
+
+    /**
+     * Plain names stay as they are, so existing snapshots and shared entries keep matching.
+     */
+    private static String nameKey(String name) {
+        boolean reserved = name.startsWith(ID_PREFIX) || name.startsWith(GEO_PREFIX) || name.startsWith(NAME_PREFIX);
+        return reserved ? NAME_PREFIX + name : name;
+    }
+
+    public void alias(String nameKey, String idKey) {
+        Alias previous = aliases.put(nameKey, new Alias(idKey));
+        if (previous != null) {
+            return;
+        }
+        order.offer(nameKey);
+        // Every alias passed over loses its bit, so this ends within two rounds of the queue
+        while (aliases.size() > maxAliases) {
+            String oldest = order.poll();
+            if (oldest == null) {
+                break;
+            }
+            Alias candidate = aliases.get(oldest);
+            if (candidate != null && candidate.referenced) {
+                candidate.referenced = false;
+                order.offer(oldest);
+            } else {
+                aliases.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * The current name-to-ID aliases, for persisting them with a cache snapshot.
+     */
+    public Map<String, String> aliases() {
+        Map<String, String> copy = new LinkedHashMap<>();
+        aliases.forEach((name, alias) -> copy.put(name, alias.idKey));
+        return copy;
+    }
+
+    long cellOf(double lat, double lon) {
+        long latIndex = (long) Math.floor((lat + 90) / cellDegrees);
+        long lonIndex = (long) Math.floor((lon + 180) / cellDegrees);
+        return (latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+
+    private static double round(double degrees) {
+        return Math.round(degrees * 1_000_000d) / 1_000_000d;
+    }
+
+    public static String normalizeName(String name) {
+        String trimmed = WHITESPACE.matcher(name.trim()).replaceAll(" ");
+        return COMMA.matcher(trimmed).replaceAll(",").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Alias {
+        private final String idKey;
+        // Set by lookups; written only when it changes so hot names do not keep dirtying the cache line
+        private volatile boolean referenced;
+
+        private Alias(String idKey) {
+            this.idKey = idKey;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LruWeatherCache implements WeatherCache {
+    private static final Logger log = LoggerFactory.getLogger(LruWeatherCache.class);
+
+    private static final int SWEEP_BATCH = 4;
+
+    private final int maxSize;
+    private final long maxWeight;
+    private final CachePolicies policies;
+    private final Ticker ticker;
+    private final WeatherMetrics metrics;
+    private final Map<String, CacheEntry> cache;
+    private final FrequencySketch sketch;
+    private long totalWeight;
+
+    public LruWeatherCache(int maxSize, int ttlMinutes) {
+        this(maxSize, ttlMinutes, WeatherMetrics.NOOP);
+    }
+
+    public LruWeatherCache(int maxSize, int ttlMinutes, WeatherMetrics metrics) {
+        this(maxSize, 0, CachePolicies.uniform(ttlMinutes, 0), Ticker.SYSTEM, metrics);
+    }
+
+    /**
+     * @param maxWeight limit on the summed weights of all entries, on top of {@code maxSize}; {@code 0} for none
+     */
+    public LruWeatherCache(int maxSize, long maxWeight, CachePolicies policies, Ticker ticker, WeatherMetrics metrics) {
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.policies = policies;
+        this.ticker = ticker;
+        this.metrics = metrics;
+        this.sketch = new FrequencySketch(maxSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public synchronized WeatherData get(String city) {
+        sketch.increment(city);
+        CacheEntry entry = cache.get(city);
+        if (entry == null) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        if (entry.isExpired(now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+            cache.remove(city);
+            totalWeight -= entry.weight();
+            return null;
+        }
+
+        entry.markAccessed(now);
+        metrics.cacheHit();
+        log.trace("Hit: {}", city);
+        return entry.getData();
+    }
+
+    @Override
+    public synchronized CacheEntry getEntry(String city) {
+        sketch.increment(city);
+        CacheEntry entry = cache.get(city);
+        if (entry == null) {
+            metrics.cacheMiss();
+            log.debug("Miss: {}", city);
+            return null;
+        }
+
+        long now = ticker.read();
+        if (entry.isExpired(now)) {
+            metrics.cacheExpired();
+            log.debug("Expired: {}", city);
+        } else {
+            metrics.cacheHit();
+            log.trace("Hit: {}", city);
+        }
+        entry.markAccessed(now);
+        return entry;
+    }
+
+    @Override
+    public synchronized CacheEntry peek(String city) {
+        return cache.get(city);
+    }
+
+    @Override
+    public synchronized int frequency(String city) {
+        return sketch.frequency(city);
+    }
+
+    @Override
+    public Ticker ticker() {
+        return ticker;
+    }
+
+    @Override
+    public synchronized void put(String city, WeatherData data) {
+        store(city, new CacheEntry(data, ticker.read(), policies.resolve(city, data)));
+        log.debug("Put: {}", city);
+    }
+
+    @Override
+    public synchronized void restore(String city, WeatherData data, long epochMillis) {
+        store(city, new CacheEntry(data, ticker.fromEpochMillis(epochMillis), policies.resolve(city, data)));
+        log.debug("Restored: {}", city);
+    }
+
+    private void store(String city, CacheEntry entry) {
+        // Dead entries drift towards the eldest end since nobody reads them; drop a few before they force out live ones
+        sweep(SWEEP_BATCH);
+        CacheEntry previous = cache.put(city, entry);
+        totalWeight += entry.weight();
+        if (previous != null) {
+            totalWeight -= previous.weight();
+            entry.inheritAccess(previous);
+        }
+
+        // The entry just written is the most recent, so it is only evicted if it is alone
+        Iterator<Map.Entry<String, CacheEntry>> eldest = cache.entrySet().iterator();
+        while (cache.size() > 1 && (cache.size() > maxSize || (maxWeight > 0 && totalWeight > maxWeight))) {
+            Map.Entry<String, CacheEntry> e = eldest.next();
+            eldest.remove();
+            totalWeight -= e.getValue().weight();
+            metrics.cacheEviction();
+            log.info("Evict Least Recently Used : {} (maxSize={})", e.getKey(), maxSize);
+        }
+    }
+
+    @Override
+    public synchronized int evict(int count) {
+        Iterator<Map.Entry<String, CacheEntry>> eldest = cache.entrySet().iterator();
+        int evicted = 0;
+        while (evicted < count && eldest.hasNext()) {
+            Map.Entry<String, CacheEntry> e = eldest.next();
+            eldest.remove();
+            totalWeight -= e.getValue().weight();
+            evicted++;
+            metrics.cacheEviction();
+            log.info("Evict Least Recently Used : {} (maxSize={})", e.getKey(), maxSize);
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    private void sweep(int batch) {
+        long now = ticker.read();
+        Iterator<Map.Entry<String, CacheEntry>> it = cache.entrySet().iterator();
+        for (int i = 0; i < batch && it.hasNext(); i++) {
+            Map.Entry<String, CacheEntry> e = it.next();
+            if (e.getValue().isReclaimable(now)) {
+                it.remove();
+                totalWeight -= e.getValue().weight();
+                metrics.cacheReclaimed();
+                log.debug("Reclaimed expired: {}", e.getKey());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void cleanUp() {
+        sweep(cache.size());
+    }
+
+    @Override
+    public synchronized Map<String, CacheEntry> entries() {
+        return new LinkedHashMap<>(cache);
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+        sketch.clear();
+        totalWeight = 0;
+        log.info("Cleared manually");
+    }
+
+    @Override
+    public synchronized Map<String, WeatherData> snapshot() {
+        long now = ticker.read();
+        Map<String, WeatherData> out = new LinkedHashMap<>();
+        for (var e : cache.entrySet()) {
+            if (!e.getValue().isExpired(now)) {
+                out.put(e.getKey(), e.getValue().getData());
+            }
+        }
+        log.debug("Snapshot size={}", out.size());
+        return out;
+    }
+}
@@ -3,73 +3,299 @@ package com.weather.core;
 import com.weather.api.WeatherSdkException;
 import com.weather.infra.WeatherApi;
 import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class PollingScheduler implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(PollingScheduler.class);
 
-    private final ScheduledExecutorService executor;
+    // Refreshes are spread over this share of the interval, leaving headroom before entries expire
+    private static final double SPREAD_FRACTION = 0.5;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final ExecutorService workers;
     private final WeatherCache cache;
-    private final WeatherApi api;
+    private final Function<String, CompletableFuture<WeatherData>> refresher;
+    private final GroupRefresher groupRefresher;
+    private final WeatherMetrics metrics;
+    private final TokenBucket rateLimiter;
+    private final int minReads;
+    private final long idleNanos;
+    private final AtomicReference<Cycle> currentCycle = new AtomicReference<>();
+    private volatile long intervalNanos;
+    private volatile Predicate<String> watched = key -> false;
 
     public PollingScheduler(WeatherCache cache, WeatherApi api) {
+        this(cache, city -> api.getWeatherAsync(city).thenApply(data -> {
+            cache.put(city, data);
+            return data;
+        }), WeatherMetrics.NOOP, 1, 0, 0, 0);
+    }
+
+    /**
+     * @param refresher loads fresh data for a cache key and stores it; the scheduler only decides when
+     * @param minReads  recent reads (as estimated by {@link WeatherCache#frequency}) a city needs to be refreshed
+     *                  proactively; colder cities are left to expire and are fetched again on demand
+     * @param idleMinutes cities nobody has read for this long are no longer polled; {@code 0} disables the cutoff
+     */
+    public PollingScheduler(WeatherCache cache, Function<String, CompletableFuture<WeatherData>> refresher,
+                            WeatherMetrics metrics, int threads, int callsPerMinute, int minReads, int idleMinutes) {
+        this(cache, refresher, null, metrics, threads, callsPerMinute, minReads, idleMinutes);
+    }
+
+    /**
+     * @param groupRefresher refreshes several keys with one upstream call; keys it assigns to the same group are
+     *                       packed {@link WeatherApi#MAX_GROUP_SIZE} at a time, each pack costing one rate-limit permit
+     */
+    public PollingScheduler(WeatherCache cache, Function<String, CompletableFuture<WeatherData>> refresher,
+                            GroupRefresher groupRefresher, WeatherMetrics metrics, int threads, int callsPerMinute,
+                            int minReads, int idleMinutes) {
         this.cache = cache;
-        this.api = api;
-        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        this.refresher = refresher;
+        this.groupRefresher = groupRefresher;
+        this.metrics = metrics;
+        this.minReads = Math.min(minReads, FrequencySketch.MAX_FREQUENCY);
+        this.idleNanos = TimeUnit.MINUTES.toNanos(Math.max(0, idleMinutes));
+        this.rateLimiter = callsPerMinute > 0 ? new TokenBucket(callsPerMinute, 1) : null;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
             Thread t = new Thread(r, "weather-polling");
             t.setDaemon(true);
             return t;
         });
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "weather-refresh-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Keys someone is subscribed to; they are polled whenever due, however rarely they are read.
+     */
+    public void watch(Predicate<String> watched) {
+        this.watched = watched;
     }
 
     public void start(long intervalMinutes) {
         log.info("Scheduler started (interval={} min)", intervalMinutes);
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(intervalMinutes);
         executor.scheduleAtFixedRate(this::refreshAll, 0, intervalMinutes, TimeUnit.MINUTES);
     }
 
     private void refreshAll() {
         log.debug("Refresh triggered");
         try {
-            Map<String, WeatherData> snapshot = cache.snapshot();
-            if (snapshot.isEmpty()) {
-                log.debug("No cities in cache, skipping refresh");
+            Cycle previous = currentCycle.get();
+            if (previous != null && !previous.isDone()) {
+                metrics.pollOverrun();
+                log.warn("Previous refresh cycle still has {} of {} calls pending - skipping this cycle",
+                        previous.pending.get(), previous.calls);
                 return;
             }
 
-            for (String city : snapshot.keySet()) {
-                try {
-                    log.debug("Refreshing '{}'", city);
-                    WeatherData updated = api.getWeather(city);
-                    cache.put(city, updated);
-                } catch (WeatherSdkException e) {
-                    log.warn("Failed to refresh '{}': {}", city, e.getMessage());
-                }
+            cache.cleanUp();
+            List<String> cities = selectCities();
+            if (cities.isEmpty()) {
+                log.debug("No cities in demand, skipping refresh");
+                return;
             }
 
-            log.info("Completed refresh for {} cities", snapshot.size());
+            List<List<String>> calls = pack(cities);
+            Cycle cycle = new Cycle(cities.size(), calls.size());
+            currentCycle.set(cycle);
+
+            long stepNanos = (long) (intervalNanos * SPREAD_FRACTION) / calls.size();
+            for (int i = 0; i < calls.size(); i++) {
+                List<String> call = calls.get(i);
+                executor.schedule(() -> submit(cycle, call), i * stepNanos, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Scheduled refresh of {} cities in {} calls over {} ms", cities.size(), calls.size(),
+                    TimeUnit.NANOSECONDS.toMillis(stepNanos * calls.size()));
         } catch (Exception e) {
             log.error("Error while refreshing cache", e);
         }
     }
 
+    /**
+     * Cities read recently and often enough to be worth their quota, hottest first so they are refreshed
+     * earliest in the spread and survive an overrun. Entries whose policy TTL outlasts the next cycle's
+     * spread are left for a later cycle. Watched cities go first whatever their reads.
+     */
+    private List<String> selectCities() {
+        long now = cache.ticker().read();
+        List<Map.Entry<String, Integer>> hot = new ArrayList<>();
+        long horizon = intervalNanos + (long) (intervalNanos * SPREAD_FRACTION);
+        int idle = 0;
+        int cold = 0;
+        int notDue = 0;
+        for (Map.Entry<String, CacheEntry> e : cache.entries().entrySet()) {
+            if (now - e.getValue().getWriteTime() + horizon < e.getValue().policy().ttlNanos) {
+                notDue++;
+                continue;
+            }
+            if (watched.test(e.getKey())) {
+                hot.add(Map.entry(e.getKey(), FrequencySketch.MAX_FREQUENCY + 1));
+                continue;
+            }
+            if (idleNanos > 0 && now - e.getValue().getLastAccessTime() > idleNanos) {
+                idle++;
+                continue;
+            }
+            int frequency = cache.frequency(e.getKey());
+            if (frequency < minReads) {
+                cold++;
+                continue;
+            }
+            hot.add(Map.entry(e.getKey(), frequency));
+        }
+        if (idle > 0 || cold > 0 || notDue > 0) {
+            log.debug("Skipping {} idle, {} cold and {} not yet due cities", idle, cold, notDue);
+        }
+
+        hot.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> cities = new ArrayList<>(hot.size());
+        for (Map.Entry<String, Integer> e : hot) {
+            cities.add(e.getKey());
+        }
+        return cities;
+    }
+
+    /**
+     * Splits the cities into upstream calls, keeping their order: cities the group refresher can batch share a
+     * call with the next ones of the same group, the rest get a call each.
+     */
+    private List<List<String>> pack(List<String> cities) {
+        List<List<String>> calls = new ArrayList<>();
+        Map<String, List<String>> open = new HashMap<>();
+        for (String city : cities) {
+            String group = groupRefresher != null ? groupRefresher.groupOf(city) : null;
+            if (group == null) {
+                calls.add(List.of(city));
+                continue;
+            }
+            List<String> call = open.get(group);
+            if (call == null) {
+                call = new ArrayList<>(WeatherApi.MAX_GROUP_SIZE);
+                open.put(group, call);
+                calls.add(call);
+            }
+            call.add(city);
+            if (call.size() == WeatherApi.MAX_GROUP_SIZE) {
+                open.remove(group);
+            }
+        }
+        return calls;
+    }
+
+    private void submit(Cycle cycle, List<String> call) {
+        try {
+            workers.execute(() -> refresh(cycle, call));
+        } catch (RejectedExecutionException e) {
+            log.debug("Scheduler closed, skipping refresh of {}", call);
+        }
+    }
+
+    private void refresh(Cycle cycle, List<String> call) {
+        String what = call.size() == 1 ? "'" + call.get(0) + "'" : call.size() + " cities";
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            log.debug("Refreshing {}", what);
+            CompletableFuture<?> refresh = call.size() == 1
+                    ? refresher.apply(call.get(0))
+                    : groupRefresher.refresh(call);
+            // A body that never completes would hold this worker forever; past one interval the next cycle is due
+            FutureUtils.await(refresh, "refresh of " + what, intervalNanos, TimeUnit.NANOSECONDS);
+        } catch (WeatherSdkException e) {
+            log.warn("Failed to refresh {}: {}", what, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Refresh of {} interrupted", what);
+        } catch (Exception e) {
+            log.error("Error while refreshing {}", what, e);
+        } finally {
+            cycle.complete();
+        }
+    }
+
+    /**
+     * Batch refresh through an endpoint such as OpenWeather's {@code /group}.
+     */
+    public interface GroupRefresher {
+        /**
+         * Keys with the same group may share a call; {@code null} if the key has to be refreshed on its own.
+         */
+        String groupOf(String key);
+
+        /**
+         * Loads and stores fresh data for up to {@link WeatherApi#MAX_GROUP_SIZE} keys of one group.
+         */
+        CompletableFuture<?> refresh(List<String> keys);
+    }
+
+    private final class Cycle {
+        private final int size;
+        private final int calls;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger pending;
+
+        private Cycle(int size, int calls) {
+            this.size = size;
+            this.calls = calls;
+            this.pending = new AtomicInteger(calls);
+        }
+
+        private boolean isDone() {
+            return pending.get() == 0;
+        }
+
+        private void complete() {
+            if (pending.decrementAndGet() == 0) {
+                long duration = System.nanoTime() - startNanos;
+                metrics.pollCycle(duration);
+                if (duration > intervalNanos) {
+                    log.warn("Refresh cycle for {} cities took {} ms, longer than the {} ms interval",
+                            size, TimeUnit.NANOSECONDS.toMillis(duration), TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+                } else {
+                    log.info("Completed refresh for {} cities", size);
+                }
+            }
+        }
+    }
+
     @Override
     public void close() {
         log.info("[POLLING] Scheduler shutting down...");
 
         executor.shutdown();
+        workers.shutdown();
         try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS) || !workers.awaitTermination(5, TimeUnit.SECONDS)) {
                 log.warn("[POLLING] Scheduler didn't terminate in time — forcing shutdown");
                 executor.shutdownNow();
+                workers.shutdownNow();
             } else {
                 log.info("[POLLING] Scheduler stopped gracefully");
             }
         } catch (InterruptedException e) {
             log.error("[POLLING] Interrupted during shutdown — forcing shutdown");
             executor.shutdownNow();
+            workers.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
@@ -0,0 +1,159 @@
+package com.weather.core;
+
+import com.weather.config.QuotaConfig;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the calls made with one API key against its per-minute and per-day plan limits, so the client stops
+ * before the provider starts answering 429. Windows are aligned to wall-clock minutes and UTC days like the
+ * provider's. Background refreshes may only use the share of each window not reserved for user-facing misses.
+ * Each window is a single CAS-updated word, so admission never blocks.
+ */
+public final class QuotaTracker {
+    private static final Logger log = LoggerFactory.getLogger(QuotaTracker.class);
+
+    public enum Priority {
+        USER,
+        BACKGROUND
+    }
+
+    private final String apiKey;
+    private final WeatherMetrics metrics;
+    private final LongSupplier clockMillis;
+    private final Window minute;
+    private final Window day;
+
+    public QuotaTracker(String apiKey, QuotaConfig config, WeatherMetrics metrics) {
+        this(apiKey, config, metrics, System::currentTimeMillis);
+    }
+
+    QuotaTracker(String apiKey, QuotaConfig config, WeatherMetrics metrics, LongSupplier clockMillis) {
+        this.apiKey = apiKey;
+        this.metrics = metrics;
+        this.clockMillis = clockMillis;
+        this.minute = new Window("minute", TimeUnit.MINUTES.toMillis(1), config.callsPerMinute(), config);
+        this.day = new Window("day", TimeUnit.DAYS.toMillis(1), config.callsPerDay(), config);
+    }
+
+    /**
+     * Takes one call from both windows, or none if either is used up for this priority.
+     */
+    public boolean tryAcquire(Priority priority) {
+        long now = clockMillis.getAsLong();
+        if (minute.tryAcquire(now, priority)) {
+            if (day.tryAcquire(now, priority)) {
+                return true;
+            }
+            minute.release(now);
+        }
+        metrics.quotaRejected();
+        log.debug("Quota used up for {} call (apiKey={})", priority, apiKey);
+        return false;
+    }
+
+    /**
+     * Time until every window that currently rejects {@code priority} has rolled over.
+     */
+    public long millisUntilAvailable(Priority priority) {
+        long now = clockMillis.getAsLong();
+        long wait = 0;
+        if (minute.isExhausted(now, priority)) {
+            wait = minute.remainingMillis(now);
+        }
+        if (day.isExhausted(now, priority)) {
+            wait = Math.max(wait, day.remainingMillis(now));
+        }
+        return wait;
+    }
+
+    public long usedThisMinute() {
+        return minute.used(clockMillis.getAsLong());
+    }
+
+    public long usedToday() {
+        return day.used(clockMillis.getAsLong());
+    }
+
+    private final class Window {
+        private final String name;
+        private final long lengthMillis;
+        private final long limit;
+        private final long backgroundLimit;
+        private final long warnAt;
+        // Window index in the high 32 bits and calls in the low 32 bits, so a rollover and a count are one CAS
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicLong warnedWindow = new AtomicLong(-1);
+
+        private Window(String name, long lengthMillis, long limit, QuotaConfig config) {
+            this.name = name;
+            this.lengthMillis = lengthMillis;
+            this.limit = limit;
+            this.backgroundLimit = (long) (limit * (1 - Math.min(1, Math.max(0, config.userReserve()))));
+            this.warnAt = Math.max(1, (long) Math.ceil(limit * config.warningRatio()));
+        }
+
+        private boolean tryAcquire(long now, Priority priority) {
+            if (limit <= 0) {
+                return true;
+            }
+            long index = now / lengthMillis;
+            long cap = priority == Priority.USER ? limit : backgroundLimit;
+            while (true) {
+                long s = state.get();
+                long used = (s >>> 32) == index ? (s & 0xFFFFFFFFL) : 0;
+                if (used >= cap) {
+                    return false;
+                }
+                if (state.compareAndSet(s, (index << 32) | (used + 1))) {
+                    if (used + 1 >= warnAt) {
+                        warn(index, used + 1);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private void release(long now) {
+            if (limit <= 0) {
+                return;
+            }
+            long index = now / lengthMillis;
+            while (true) {
+                long s = state.get();
+                if ((s >>> 32) != index || (s & 0xFFFFFFFFL) == 0) {
+                    return;
+                }
+                if (state.compareAndSet(s, s - 1)) {
+                    return;
+                }
+            }
+        }
+
+        private long used(long now) {
+            long s = state.get();
+            return (s >>> 32) == now / lengthMillis ? (s & 0xFFFFFFFFL) : 0;
+        }
+
+        private boolean isExhausted(long now, Priority priority) {
+            return limit > 0 && used(now) >= (priority == Priority.USER ? limit : backgroundLimit);
+        }
+
+        private long remainingMillis(long now) {
+            return lengthMillis - now % lengthMillis;
+        }
+
+        private void warn(long index, long used) {
+            long warned = warnedWindow.get();
+            if (warned != index && warnedWindow.compareAndSet(warned, index)) {
+                metrics.quotaWarning();
+                log.warn("API key {} has used {} of its {} calls this {}", apiKey, used, limit, name);
+            }
+        }
+    }
+}
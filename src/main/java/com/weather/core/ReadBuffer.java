@@ -0,0 +1,91 @@
+package com.weather.core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped, lossy buffer of reads in front of a {@link FrequencySketch}, so concurrent readers do not all write
+ * the sketch's shared table. A reader records the key's hash in its thread's stripe; every few reads the stripe
+ * is drained into the sketch by whoever wins a {@code tryLock}, and a reader that loses just moves on. A read
+ * overwritten before it was drained is lost, which only makes an estimate slightly low.
+ */
+final class ReadBuffer {
+    private static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private final FrequencySketch sketch;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ReadBuffer(FrequencySketch sketch) {
+        this.sketch = sketch;
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    void record(String key) {
+        Stripe stripe = stripes[probe() & mask];
+        long n = stripe.writes.getAndIncrement();
+        stripe.hashes.lazySet((int) (n & STRIPE_MASK), key.hashCode());
+        if ((n & STRIPE_MASK) == STRIPE_MASK && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The key's estimate including reads still buffered.
+     */
+    int frequency(String key) {
+        lock.lock();
+        try {
+            drain();
+            return sketch.frequency(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.drained = stripe.writes.get();
+            }
+            sketch.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        for (Stripe stripe : stripes) {
+            long end = stripe.writes.get();
+            for (long i = Math.max(stripe.drained, end - STRIPE_SIZE); i < end; i++) {
+                sketch.increment(stripe.hashes.get((int) (i & STRIPE_MASK)));
+            }
+            stripe.drained = end;
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9e3779b97f4a7c15L) >>> 32);
+    }
+
+    private static final class Stripe {
+        private final AtomicLong writes = new AtomicLong();
+        private final AtomicIntegerArray hashes = new AtomicIntegerArray(STRIPE_SIZE);
+        // Guarded by the buffer's lock
+        private long drained;
+    }
+}
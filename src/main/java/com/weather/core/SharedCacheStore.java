@@ -0,0 +1,15 @@
+package com.weather.core;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Second-level cache shared by several SDK instances, typically backed by a remote key-value store.
+ * Values are opaque, already-encoded bytes; a missing key completes with {@code null}.
+ */
+public interface SharedCacheStore {
+
+    CompletableFuture<byte[]> get(String key);
+
+    CompletableFuture<Void> put(String key, byte[] value, Duration ttl);
+}
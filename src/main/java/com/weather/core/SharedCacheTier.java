@@ -0,0 +1,155 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import com.weather.util.WeatherDataCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read-through / write-through access to a {@link SharedCacheStore}. Keys are namespaced by
+ * units and language so clients with different settings never share entries, and values carry the
+ * original fetch timestamp so every node can tell which copy is newer. Each value is retained for
+ * the TTL and stale window of the policy its key resolves to. A city name that resolved to an ID holds an
+ * alias to the ID's key instead of a copy, so nodes looking the city up by name find the entry kept fresh
+ * under its ID.
+ */
+class SharedCacheTier {
+    private static final Logger log = LoggerFactory.getLogger(SharedCacheTier.class);
+
+    private static final byte FORMAT = 1;
+    private static final byte ALIAS = 2;
+    // A name keeps resolving to the same city ID
+    private static final Duration ALIAS_TTL = Duration.ofDays(1);
+    // Stands for a failed read, which is logged but not counted as a miss
+    private static final byte[] FAILED = new byte[0];
+
+    private final SharedCacheStore store;
+    private final String namespace;
+    private final CachePolicies policies;
+    private final Ticker ticker;
+    private final WeatherMetrics metrics;
+
+    SharedCacheTier(SharedCacheStore store, String namespace, CachePolicies policies, Ticker ticker,
+                    WeatherMetrics metrics) {
+        this.ticker = ticker;
+        this.store = store;
+        this.namespace = namespace;
+        this.policies = policies;
+        this.metrics = metrics;
+    }
+
+    CompletableFuture<CacheEntry> read(String key) {
+        return get(key).thenApply(bytes -> {
+            if (bytes == FAILED) {
+                return null;
+            }
+            if (bytes == null || bytes.length == 0 || bytes[0] != FORMAT) {
+                metrics.sharedCacheMiss();
+                return null;
+            }
+            try {
+                return decode(key, bytes);
+            } catch (IOException e) {
+                log.warn("Ignoring undecodable shared cache entry '{}': {}", key, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * The ID key another node found the name key to resolve to, or {@code null}.
+     */
+    CompletableFuture<String> readAlias(String nameKey) {
+        return get(nameKey).thenApply(bytes -> {
+            if (bytes == null || bytes.length == 0 || bytes[0] != ALIAS) {
+                return null;
+            }
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+                return in.readUTF();
+            } catch (IOException e) {
+                log.warn("Ignoring undecodable shared cache alias '{}': {}", nameKey, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    void write(String key, WeatherData data, long timestamp) {
+        try {
+            Duration retention = Duration.ofNanos(policies.resolve(key, data).retentionNanos);
+            put(key, encode(data, timestamp), retention);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Shared cache write failed for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    void writeAlias(String nameKey, String idKey) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(ALIAS);
+                out.writeUTF(idKey);
+            }
+            put(nameKey, bytes.toByteArray(), ALIAS_TTL);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Shared cache write failed for '{}': {}", nameKey, e.getMessage());
+        }
+    }
+
+    /**
+     * The stored bytes, {@code null} if missing or {@link #FAILED} if the store could not be read.
+     */
+    private CompletableFuture<byte[]> get(String key) {
+        CompletableFuture<byte[]> value;
+        try {
+            value = store.get(namespace + key);
+        } catch (RuntimeException e) {
+            value = CompletableFuture.failedFuture(e);
+        }
+        return value.handle((bytes, error) -> {
+            if (error != null) {
+                log.warn("Shared cache read failed for '{}': {}", key, FutureUtils.unwrap(error).getMessage());
+                return FAILED;
+            }
+            return bytes;
+        });
+    }
+
+    private void put(String key, byte[] value, Duration ttl) {
+        store.put(namespace + key, value, ttl).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Shared cache write failed for '{}': {}", key, FutureUtils.unwrap(error).getMessage());
+            }
+        });
+    }
+
+    static byte[] encode(WeatherData data, long timestamp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(timestamp);
+            WeatherDataCodec.write(out, data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a stored value; the wall-clock fetch time is mapped onto this process's ticker.
+     */
+    CacheEntry decode(String key, byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte format = in.readByte();
+        if (format != FORMAT) {
+            throw new IOException("Unknown shared cache format " + format);
+        }
+        long timestamp = in.readLong();
+        WeatherData data = WeatherDataCodec.read(in);
+        return new CacheEntry(data, ticker.fromEpochMillis(timestamp), policies.resolve(key, data));
+    }
+}
@@ -0,0 +1,76 @@
+package com.weather.core;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one loader per key at a time. Concurrent callers for the same key share the
+ * leader's future, and the key is released only after that future is completed.
+ */
+public class SingleFlight<V> {
+
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Runnable onCoalesced;
+
+    public SingleFlight() {
+        this(() -> {});
+    }
+
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public CompletableFuture<V> execute(String key, Supplier<CompletableFuture<V>> loader) {
+        return execute(key, loader, true);
+    }
+
+    /**
+     * Like {@link #execute}, for background work that no caller waits on: joining a call already in flight
+     * is not counted as coalesced.
+     */
+    public CompletableFuture<V> executeInBackground(String key, Supplier<CompletableFuture<V>> loader) {
+        return execute(key, loader, false);
+    }
+
+    private CompletableFuture<V> execute(String key, Supplier<CompletableFuture<V>> loader, boolean countJoin) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            if (countJoin) {
+                coalesced.increment();
+                onCoalesced.run();
+            }
+            return existing.copy();
+        }
+
+        issued.increment();
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (Throwable t) {
+            source = CompletableFuture.failedFuture(t);
+        }
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+            inFlight.remove(key, created);
+        });
+        return created.copy();
+    }
+
+    public long issuedCount() {
+        return issued.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package com.weather.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense int codes to repeating strings such as condition names and descriptions, so each distinct
+ * value is stored once however many entries use it. Codes are never reclaimed; the vocabulary of
+ * OpenWeather conditions is small and bounded. {@code null} is encoded as {@code -1}. Not thread-safe.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[64];
+
+    int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == values.length) {
+            values = Arrays.copyOf(values, next * 2);
+        }
+        values[next] = value;
+        codes.put(value, next);
+        return next;
+    }
+
+    String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
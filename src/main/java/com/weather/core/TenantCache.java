@@ -0,0 +1,283 @@
+package com.weather.core;
+
+import com.weather.api.CacheType;
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The cache of a {@link TenantPool}. Each namespace (units and language) gets its own partition, so a tenant
+ * only ever sees data fetched with its settings, while tenants with the same settings share entries.
+ * A partition holds at most {@code partitionQuota} entries and {@code maxWeight} of entry weight; when all of
+ * them together exceed {@code maxEntries},
+ * the largest partition gives up entries first, so one busy namespace cannot push the others out.
+ * <p>
+ * Used as a {@link WeatherCache} itself, this is the union of all partitions under {@code namespace/key}
+ * keys, which is what the pool's single polling scheduler walks.
+ */
+public final class TenantCache implements WeatherCache {
+    private static final Logger log = LoggerFactory.getLogger(TenantCache.class);
+
+    static final char SEPARATOR = '/';
+
+    private final CacheType type;
+    private final int maxEntries;
+    private final int partitionQuota;
+    private final long maxWeight;
+    private final CachePolicies policies;
+    private final Ticker ticker;
+    private final WeatherMetrics metrics;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final ReentrantLock balanceLock = new ReentrantLock();
+
+    public TenantCache(CacheType type, int maxEntries, int partitionQuota, CachePolicies policies, Ticker ticker,
+                       WeatherMetrics metrics) {
+        this(type, maxEntries, partitionQuota, 0, policies, ticker, metrics);
+    }
+
+    /**
+     * @param maxWeight limit on each partition's summed entry weights, on top of its quota; {@code 0} for none
+     */
+    public TenantCache(CacheType type, int maxEntries, int partitionQuota, long maxWeight, CachePolicies policies,
+                       Ticker ticker, WeatherMetrics metrics) {
+        this.type = type;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.partitionQuota = partitionQuota > 0 ? Math.min(partitionQuota, this.maxEntries) : this.maxEntries;
+        this.maxWeight = maxWeight;
+        this.policies = policies;
+        this.ticker = ticker;
+        this.metrics = metrics;
+    }
+
+    public WeatherCache partition(String namespace) {
+        return partitions.computeIfAbsent(namespace, ns -> {
+            log.info("Created cache partition '{}' (quota={}, maxWeight={})", ns, partitionQuota, maxWeight);
+            return new Partition(WeatherCache.create(type, partitionQuota, maxWeight, policies, ticker, metrics));
+        });
+    }
+
+    static String globalKey(String namespace, String key) {
+        return namespace + SEPARATOR + key;
+    }
+
+    /**
+     * Evicts from the largest partition until the total fits, one entry at a time so sizes converge.
+     * Concurrent writers skip the work while another thread is balancing.
+     */
+    private void balance() {
+        if (size() <= maxEntries || !balanceLock.tryLock()) {
+            return;
+        }
+        try {
+            while (size() > maxEntries) {
+                Partition largest = largest();
+                if (largest == null || largest.cache.evict(1) == 0) {
+                    return;
+                }
+            }
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    private Partition largest() {
+        Partition largest = null;
+        int largestSize = 0;
+        for (Partition p : partitions.values()) {
+            int size = p.cache.size();
+            if (size > largestSize) {
+                largest = p;
+                largestSize = size;
+            }
+        }
+        return largest;
+    }
+
+    private WeatherCache route(String globalKey) {
+        int i = globalKey.indexOf(SEPARATOR);
+        Partition p = i > 0 ? partitions.get(globalKey.substring(0, i)) : null;
+        return p != null ? p.cache : null;
+    }
+
+    private static String localKey(String globalKey) {
+        return globalKey.substring(globalKey.indexOf(SEPARATOR) + 1);
+    }
+
+    @Override
+    public WeatherData get(String key) {
+        WeatherCache p = route(key);
+        return p != null ? p.get(localKey(key)) : null;
+    }
+
+    @Override
+    public CacheEntry getEntry(String key) {
+        WeatherCache p = route(key);
+        return p != null ? p.getEntry(localKey(key)) : null;
+    }
+
+    @Override
+    public CacheEntry peek(String key) {
+        WeatherCache p = route(key);
+        return p != null ? p.peek(localKey(key)) : null;
+    }
+
+    @Override
+    public void put(String key, WeatherData data) {
+        int i = key.indexOf(SEPARATOR);
+        if (i <= 0) {
+            throw new IllegalArgumentException("Key without namespace: " + key);
+        }
+        partition(key.substring(0, i)).put(key.substring(i + 1), data);
+    }
+
+    @Override
+    public void restore(String key, WeatherData data, long epochMillis) {
+        int i = key.indexOf(SEPARATOR);
+        if (i <= 0) {
+            throw new IllegalArgumentException("Key without namespace: " + key);
+        }
+        partition(key.substring(0, i)).restore(key.substring(i + 1), data, epochMillis);
+    }
+
+    @Override
+    public int frequency(String key) {
+        WeatherCache p = route(key);
+        return p != null ? p.frequency(localKey(key)) : 0;
+    }
+
+    @Override
+    public void cleanUp() {
+        partitions.values().forEach(p -> p.cache.cleanUp());
+    }
+
+    @Override
+    public Ticker ticker() {
+        return ticker;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Partition p : partitions.values()) {
+            size += p.cache.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int evict(int count) {
+        int evicted = 0;
+        while (evicted < count) {
+            Partition largest = largest();
+            if (largest == null || largest.cache.evict(1) == 0) {
+                break;
+            }
+            evicted++;
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        partitions.values().forEach(p -> p.cache.clear());
+        log.info("Cleared all {} partitions", partitions.size());
+    }
+
+    @Override
+    public Map<String, CacheEntry> entries() {
+        Map<String, CacheEntry> out = new LinkedHashMap<>();
+        partitions.forEach((ns, p) -> p.cache.entries().forEach((k, e) -> out.put(globalKey(ns, k), e)));
+        return out;
+    }
+
+    @Override
+    public Map<String, WeatherData> snapshot() {
+        Map<String, WeatherData> out = new LinkedHashMap<>();
+        partitions.forEach((ns, p) -> p.cache.snapshot().forEach((k, d) -> out.put(globalKey(ns, k), d)));
+        return out;
+    }
+
+    /**
+     * One namespace's view; writes rebalance the shared bound.
+     */
+    private final class Partition implements WeatherCache {
+        private final WeatherCache cache;
+
+        private Partition(WeatherCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public WeatherData get(String city) {
+            return cache.get(city);
+        }
+
+        @Override
+        public CacheEntry getEntry(String city) {
+            return cache.getEntry(city);
+        }
+
+        @Override
+        public CacheEntry peek(String city) {
+            return cache.peek(city);
+        }
+
+        @Override
+        public void put(String city, WeatherData data) {
+            cache.put(city, data);
+            balance();
+        }
+
+        @Override
+        public void restore(String city, WeatherData data, long epochMillis) {
+            cache.restore(city, data, epochMillis);
+            balance();
+        }
+
+        @Override
+        public int frequency(String city) {
+            return cache.frequency(city);
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+        }
+
+        @Override
+        public void cleanUp() {
+            cache.cleanUp();
+        }
+
+        @Override
+        public Ticker ticker() {
+            return ticker;
+        }
+
+        @Override
+        public int size() {
+            return cache.size();
+        }
+
+        @Override
+        public int evict(int count) {
+            return cache.evict(count);
+        }
+
+        @Override
+        public Map<String, CacheEntry> entries() {
+            return cache.entries();
+        }
+
+        @Override
+        public Map<String, WeatherData> snapshot() {
+            return cache.snapshot();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.weather.core;
+
+import com.weather.api.WeatherClient;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.api.WorkMode;
+import com.weather.config.HistoryConfig;
+import com.weather.config.HttpTransportConfig;
+import com.weather.config.QuotaConfig;
+import com.weather.config.ResilienceConfig;
+import com.weather.config.TenantPoolConfig;
+import com.weather.config.WeatherApiConfig;
+import com.weather.config.WeatherSdkConfig;
+import com.weather.infra.HttpTransport;
+import com.weather.infra.OpenWeatherApi;
+import com.weather.infra.ResilientWeatherApi;
+import com.weather.infra.WeatherApi;
+import com.weather.metrics.DefaultWeatherMetrics;
+import com.weather.metrics.WeatherMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves many tenant API keys from one set of resources: one HTTP transport, one {@link TenantCache} and, in
+ * {@code POLLING} mode, one scheduler whose threads refresh every tenant's cities. A tenant costs a client
+ * object and its API wrapper, so threads and cache memory stay flat as tenants are added.
+ * <p>
+ * Tenants with the same units and language share a cache partition, its city-name aliases and its in-flight
+ * calls, so tenants missing the same city at once make one upstream call between them. Background
+ * refreshes of a partition are spread round-robin over its tenants' API keys.
+ */
+public final class TenantPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TenantPool.class);
+
+    private final WeatherSdkConfig sdkConfig;
+    private final HttpTransport transport;
+    private final ResilienceConfig resilience;
+    private final QuotaConfig quota;
+    private final WeatherMetrics metrics;
+    private final CachePolicies policies;
+    private final TenantCache cache;
+    private final PollingScheduler scheduler;
+    private final ChangeNotifier notifier = new ChangeNotifier();
+    private final WeatherHistory history;
+    private final Map<String, List<DefaultWeatherClient>> tenants = new ConcurrentHashMap<>();
+    private final Map<String, LocationKeys> locationKeys = new ConcurrentHashMap<>();
+    private final Map<String, SingleFlight<WeatherData>> inFlight = new ConcurrentHashMap<>();
+    private final int maxAliases;
+    private final AtomicInteger nextTenant = new AtomicInteger();
+
+    public TenantPool(WeatherSdkConfig sdkConfig, TenantPoolConfig poolConfig, HttpTransport transport,
+                      ResilienceConfig resilience, QuotaConfig quota, WeatherMetrics metrics) {
+        this(sdkConfig, poolConfig, transport, resilience, quota, metrics, Ticker.SYSTEM);
+    }
+
+    /**
+     * @param quota call limits applied to each tenant's API key separately
+     */
+    public TenantPool(WeatherSdkConfig sdkConfig, TenantPoolConfig poolConfig, HttpTransport transport,
+                      ResilienceConfig resilience, QuotaConfig quota, WeatherMetrics metrics, Ticker ticker) {
+        this(sdkConfig, poolConfig, transport, resilience, quota, metrics, ticker, HistoryConfig.defaults());
+    }
+
+    /**
+     * @param history size of the one history all tenants record into, each namespace under its own keys
+     */
+    public TenantPool(WeatherSdkConfig sdkConfig, TenantPoolConfig poolConfig, HttpTransport transport,
+                      ResilienceConfig resilience, QuotaConfig quota, WeatherMetrics metrics, Ticker ticker,
+                      HistoryConfig history) {
+        this.sdkConfig = sdkConfig;
+        this.transport = transport;
+        this.resilience = resilience;
+        this.quota = quota;
+        this.metrics = metrics;
+        this.policies = CachePolicies.of(sdkConfig);
+        this.maxAliases = Math.max(1024, poolConfig.maxEntries() * 4);
+        this.history = history.enabled() ? new WeatherHistory(history) : null;
+        this.cache = new TenantCache(sdkConfig.cacheType(), poolConfig.maxEntries(), poolConfig.partitionQuota(),
+                sdkConfig.maxWeight(), policies, ticker, metrics);
+
+        if (sdkConfig.workMode() == WorkMode.POLLING) {
+            this.scheduler = new PollingScheduler(cache, this::refresh, new TenantGroupRefresher(), metrics,
+                    sdkConfig.pollingThreads(), sdkConfig.callsPerMinute(),
+                    sdkConfig.pollMinReads(), sdkConfig.pollIdleMinutes());
+            scheduler.watch(notifier::isWatched);
+            scheduler.start(Math.max(1, TimeUnit.NANOSECONDS.toMinutes(policies.minTtlNanos())));
+        } else {
+            this.scheduler = null;
+        }
+        log.info("Tenant pool started (mode={}, maxEntries={})", sdkConfig.workMode(), poolConfig.maxEntries());
+    }
+
+    public static TenantPool create() {
+        return new TenantPool(WeatherSdkConfig.defaults(), TenantPoolConfig.defaults(),
+                new HttpTransport(HttpTransportConfig.defaults()), ResilienceConfig.defaults(),
+                QuotaConfig.defaults(), new DefaultWeatherMetrics());
+    }
+
+    /**
+     * Creates a client for {@code apiKey} and registers it in {@link WeatherClientRegistry}; the endpoint comes
+     * from the usual configuration.
+     */
+    public WeatherClient client(String apiKey, String units, String lang) throws WeatherSdkException {
+        WeatherApiConfig defaults = WeatherApiConfig.load();
+        return register(new WeatherApiConfig(apiKey, defaults.baseUrl(), units, lang));
+    }
+
+    public WeatherClient register(WeatherApiConfig apiConfig) throws WeatherSdkException {
+        if (apiConfig.apiKey() == null || apiConfig.apiKey().isBlank()) {
+            throw new WeatherSdkException("Tenant API key must not be blank");
+        }
+        WeatherApi api = new OpenWeatherApi(apiConfig, metrics, transport);
+        if (resilience.enabled()) {
+            // Per key: a 429 for one tenant must not throttle the others
+            api = new ResilientWeatherApi(api, resilience, metrics);
+        }
+        DefaultWeatherClient client = new DefaultWeatherClient(apiConfig, api, this);
+        WeatherClientRegistry.register(apiConfig.apiKey(), client);
+        tenants.computeIfAbsent(namespaceOf(apiConfig), ns -> new CopyOnWriteArrayList<>()).add(client);
+        log.info("Registered tenant (apiKey={}, namespace={})", apiConfig.apiKey(), namespaceOf(apiConfig));
+        return client;
+    }
+
+    public int tenantCount() {
+        int count = 0;
+        for (List<DefaultWeatherClient> clients : tenants.values()) {
+            count += clients.size();
+        }
+        return count;
+    }
+
+    public TenantCache cache() {
+        return cache;
+    }
+
+    static String namespaceOf(WeatherApiConfig apiConfig) {
+        return apiConfig.units() + ":" + apiConfig.lang();
+    }
+
+    WeatherSdkConfig sdkConfig() {
+        return sdkConfig;
+    }
+
+    WeatherMetrics metrics() {
+        return metrics;
+    }
+
+    QuotaConfig quota() {
+        return quota;
+    }
+
+    CachePolicies policies() {
+        return policies;
+    }
+
+    ChangeNotifier notifier() {
+        return notifier;
+    }
+
+    /**
+     * Shared by all tenants, keyed like the pool's cache; {@code null} when history is disabled.
+     */
+    WeatherHistory history() {
+        return history;
+    }
+
+    /**
+     * The namespace's keys, shared by its tenants so a name one of them resolved hits the same entry for all.
+     */
+    LocationKeys locationKeys(String namespace) {
+        return locationKeys.computeIfAbsent(namespace,
+                ns -> new LocationKeys(sdkConfig.geoCellDegrees(), maxAliases));
+    }
+
+    /**
+     * The namespace's in-flight calls, keyed like its partition, so one tenant's load serves them all.
+     */
+    SingleFlight<WeatherData> inFlight(String namespace) {
+        return inFlight.computeIfAbsent(namespace, ns -> new SingleFlight<>(metrics::coalescedWait));
+    }
+
+    void release(DefaultWeatherClient client) {
+        for (List<DefaultWeatherClient> clients : tenants.values()) {
+            clients.remove(client);
+        }
+    }
+
+    private CompletableFuture<WeatherData> refresh(String globalKey) {
+        int i = globalKey.indexOf(TenantCache.SEPARATOR);
+        DefaultWeatherClient client = i > 0 ? nextTenant(globalKey.substring(0, i)) : null;
+        if (client == null) {
+            log.debug("No tenant left to refresh '{}'", globalKey);
+            return CompletableFuture.completedFuture(null);
+        }
+        return client.refresh(globalKey.substring(i + 1));
+    }
+
+    private DefaultWeatherClient nextTenant(String namespace) {
+        List<DefaultWeatherClient> clients = tenants.get(namespace);
+        if (clients == null || clients.isEmpty()) {
+            return null;
+        }
+        try {
+            return clients.get(Math.floorMod(nextTenant.getAndIncrement(), clients.size()));
+        } catch (IndexOutOfBoundsException e) {
+            // A tenant left between the size check and the lookup
+            return null;
+        }
+    }
+
+    /**
+     * Packs {@code id:} keys of one namespace into group calls made with one of its tenants' keys.
+     */
+    private final class TenantGroupRefresher implements PollingScheduler.GroupRefresher {
+        @Override
+        public String groupOf(String globalKey) {
+            int i = globalKey.indexOf(TenantCache.SEPARATOR);
+            if (i <= 0) {
+                return null;
+            }
+            String namespace = globalKey.substring(0, i);
+            DefaultWeatherClient client = nextTenant(namespace);
+            return client != null && client.canGroup(globalKey.substring(i + 1)) ? namespace : null;
+        }
+
+        @Override
+        public CompletableFuture<?> refresh(List<String> globalKeys) {
+            String namespace = globalKeys.get(0).substring(0, globalKeys.get(0).indexOf(TenantCache.SEPARATOR));
+            DefaultWeatherClient client = nextTenant(namespace);
+            if (client == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            List<String> keys = new ArrayList<>(globalKeys.size());
+            for (String globalKey : globalKeys) {
+                keys.add(globalKey.substring(namespace.length() + 1));
+            }
+            return client.refreshGroup(keys);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+        for (List<DefaultWeatherClient> clients : tenants.values()) {
+            for (DefaultWeatherClient client : clients) {
+                client.close();
+            }
+        }
+        notifier.close();
+        cache.clear();
+        if (history != null) {
+            history.clear();
+        }
+        log.info("Tenant pool closed");
+    }
+}
@@ -0,0 +1,23 @@
+package com.weather.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monotonic time source for cache ages, in nanoseconds with an arbitrary origin. Tests can supply a
+ * manually advanced ticker; wall-clock conversion is only needed where timestamps leave the process.
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    Ticker SYSTEM = System::nanoTime;
+
+    long read();
+
+    default long toEpochMillis(long tick) {
+        return System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(read() - tick);
+    }
+
+    default long fromEpochMillis(long epochMillis) {
+        return read() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - epochMillis);
+    }
+}
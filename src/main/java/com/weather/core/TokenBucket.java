@@ -0,0 +1,59 @@
+package com.weather.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: a single CAS-updated "theoretical arrival time"
+ * instead of a token counter plus refill timestamp.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFree;
+
+    public TokenBucket(int permitsPerMinute, int burst) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute must be positive: " + permitsPerMinute);
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+        this.nextFree = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = nextFree.get();
+            long start = Math.max(tat, now - burstNanos);
+            if (start > now) {
+                return false;
+            }
+            if (nextFree.compareAndSet(tat, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves a permit and returns how long the caller has to wait before using it.
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = nextFree.get();
+            long start = Math.max(tat, now - burstNanos);
+            if (nextFree.compareAndSet(tat, start + intervalNanos)) {
+                return Math.max(0, start - now);
+            }
+        }
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -1,69 +1,82 @@
 package com.weather.core;
 
+import com.weather.api.CacheType;
 import com.weather.api.WeatherData;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import java.util.LinkedHashMap;
+import com.weather.metrics.WeatherMetrics;
+
 import java.util.Map;
 
-public class WeatherCache {
-    private static final Logger log = LoggerFactory.getLogger(WeatherCache.class);
-
-    private final int maxSize;
-    private final long ttlMillis;
-    private final Map<String, CacheEntry> cache;
-
-    public WeatherCache(int maxSize, int ttlMinutes) {
-        this.maxSize = maxSize;
-        this.ttlMillis = ttlMinutes * 60L * 1000L;
-
-        this.cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
-                boolean remove = size() > maxSize;
-                if (remove) {
-                    log.info("Evict Least Recently Used : {} (maxSize={})", eldest.getKey(), maxSize);
-                }
-                return remove;
-            }
-        };
-    }
+public interface WeatherCache {
+    WeatherData get(String city);
 
-    public synchronized WeatherData get(String city) {
-        CacheEntry entry = cache.get(city);
-        if (entry == null) {
-            log.debug("Miss: {}", city);
-            return null;
-        }
-
-        if (entry.isExpired(ttlMillis)) {
-            log.debug("Expired: {}", city);
-            cache.remove(city);
-            return null;
-        }
-
-        log.trace("Hit: {}", city);
-        return entry.getData();
-    }
+    /**
+     * Returns the entry even if it is past its TTL, so callers can serve it stale. Expired entries are kept
+     * for the configured stale window and then reclaimed by the write-time sweep or {@link #cleanUp()}.
+     */
+    CacheEntry getEntry(String city);
+
+    /**
+     * Returns the stored entry, expired or not, without recording a hit or miss.
+     */
+    CacheEntry peek(String city);
+
+    void put(String city, WeatherData data);
+
+    /**
+     * Estimated number of recent reads of the key, decaying over time and capped at 15.
+     */
+    int frequency(String city);
+
+    void clear();
 
-    public synchronized void put(String city, WeatherData data) {
-        cache.put(city, new CacheEntry(data));
-        log.debug("Put: {}", city);
+    /**
+     * Re-inserts an entry with its original fetch time in epoch milliseconds, e.g. from a persisted snapshot.
+     */
+    void restore(String city, WeatherData data, long epochMillis);
+
+    /**
+     * Removes every entry past its TTL and stale window. Writes already sweep a few entries each,
+     * so this is only needed to reclaim memory while the cache sees no writes.
+     */
+    void cleanUp();
+
+    Ticker ticker();
+
+    /**
+     * Number of stored entries, including expired ones not yet reclaimed.
+     */
+    int size();
+
+    /**
+     * Evicts up to {@code count} entries chosen by the engine's own policy, e.g. to make room in a cache that
+     * shares a global bound with others. Returns the number actually evicted.
+     */
+    int evict(int count);
+
+    /**
+     * All stored entries, including expired ones, in eviction order where the engine has one.
+     */
+    Map<String, CacheEntry> entries();
+
+    Map<String, WeatherData> snapshot();
+
+    static WeatherCache create(CacheType type, int maxSize, int ttlMinutes) {
+        return create(type, maxSize, ttlMinutes, WeatherMetrics.NOOP);
     }
 
-    public synchronized void clear() {
-        cache.clear();
-        log.info("Cleared manually");
+    static WeatherCache create(CacheType type, int maxSize, int ttlMinutes, WeatherMetrics metrics) {
+        return create(type, maxSize, 0, CachePolicies.uniform(ttlMinutes, 0), Ticker.SYSTEM, metrics);
     }
 
-    public synchronized Map<String, WeatherData> snapshot() {
-        Map<String, WeatherData> out = new LinkedHashMap<>();
-        for (var e : cache.entrySet()) {
-            if (!e.getValue().isExpired(ttlMillis)) {
-                out.put(e.getKey(), e.getValue().getData());
-            }
-        }
-        log.debug("Snapshot size={}", out.size());
-        return out;
+    /**
+     * @param maxWeight limit on the summed entry weights, on top of {@code maxSize}; {@code 0} for none
+     */
+    static WeatherCache create(CacheType type, int maxSize, long maxWeight, CachePolicies policies, Ticker ticker,
+                               WeatherMetrics metrics) {
+        return switch (type) {
+            case CONCURRENT -> new ConcurrentWeatherCache(maxSize, maxWeight, policies, ticker, metrics);
+            case LRU -> new LruWeatherCache(maxSize, maxWeight, policies, ticker, metrics);
+            case COMPACT -> new CompactWeatherCache(maxSize, maxWeight, policies, ticker, metrics);
+        };
     }
 }
@@ -0,0 +1,263 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.config.HistoryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recent observations per city in fixed-size ring buffers. Every column is one primitive array preallocated
+ * for all cities, so memory is fixed at construction whatever the number of cities seen, and appending or
+ * aggregating touches no objects. A city's samples are ordered by observation time; an observation that is not
+ * newer than the last one recorded (a refresh that returned the same reading) is skipped.
+ */
+public final class WeatherHistory {
+    private static final Logger log = LoggerFactory.getLogger(WeatherHistory.class);
+
+    public enum Series {
+        TEMPERATURE,
+        FEELS_LIKE,
+        WIND_SPEED,
+        VISIBILITY
+    }
+
+    private static final Series[] SERIES = Series.values();
+
+    private final int capacity;
+    private final int maxCities;
+    // Slot s owns indexes [s * capacity, (s + 1) * capacity) of times and of each series' block in values
+    private final long[] times;
+    private final double[] values;
+    private final int[] heads;
+    private final int[] counts;
+    private final String[] keys;
+    // CLOCK bits: set by every append, cleared as the hand passes, so a full history evicts a city not
+    // appended to since the hand last came by without scanning every slot
+    private final boolean[] referenced;
+    private final Map<String, Integer> slots;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int usedSlots;
+    private int hand;
+
+    public WeatherHistory(HistoryConfig config) {
+        this.capacity = Math.max(1, config.samplesPerCity());
+        this.maxCities = Math.max(1, config.maxCities());
+        int size = Math.multiplyExact(capacity, maxCities);
+        this.times = new long[size];
+        this.values = new double[Math.multiplyExact(size, SERIES.length)];
+        this.heads = new int[maxCities];
+        this.counts = new int[maxCities];
+        this.keys = new String[maxCities];
+        this.referenced = new boolean[maxCities];
+        this.slots = new HashMap<>(maxCities * 4 / 3 + 1);
+        log.info("Weather history: {} samples for up to {} cities ({} KB)", capacity, maxCities,
+                ((long) size * (Long.BYTES + SERIES.length * Double.BYTES)) / 1024);
+    }
+
+    /**
+     * Records the observation under {@code key}; {@code false} if it is not newer than the last one.
+     */
+    public boolean append(String key, WeatherData data) {
+        long time = data.datetime();
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(key);
+            int base = slot * capacity;
+            referenced[slot] = true;
+            if (counts[slot] > 0 && time <= times[base + Math.floorMod(heads[slot] - 1, capacity)]) {
+                return false;
+            }
+            int i = base + heads[slot];
+            times[i] = time;
+            WeatherData.Temperature temperature = data.temperature();
+            values[offset(Series.TEMPERATURE) + i] = temperature != null ? temperature.temp() : Double.NaN;
+            values[offset(Series.FEELS_LIKE) + i] = temperature != null ? temperature.feels_like() : Double.NaN;
+            values[offset(Series.WIND_SPEED) + i] = data.wind() != null ? data.wind().speed() : Double.NaN;
+            values[offset(Series.VISIBILITY) + i] = data.visibility();
+            heads[slot] = heads[slot] + 1 == capacity ? 0 : heads[slot] + 1;
+            if (counts[slot] < capacity) {
+                counts[slot]++;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates the key's samples observed at or after {@code fromEpochSecond} into {@code out}, newest first,
+     * stopping at the first older one. Missing values are skipped. Returns whether any sample was found.
+     */
+    public boolean aggregate(String key, Series series, long fromEpochSecond, Aggregate out) {
+        out.reset();
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                return false;
+            }
+            int base = slot * capacity;
+            int valueBase = offset(series) + base;
+            int head = heads[slot];
+            for (int n = 0; n < counts[slot]; n++) {
+                int i = head - 1 - n;
+                if (i < 0) {
+                    i += capacity;
+                }
+                long time = times[base + i];
+                if (time < fromEpochSecond) {
+                    break;
+                }
+                out.add(time, values[valueBase + i]);
+            }
+            return out.count > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int samples(String key) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(key);
+            return slot != null ? counts[slot] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int cities() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            Arrays.fill(keys, null);
+            Arrays.fill(counts, 0);
+            Arrays.fill(heads, 0);
+            Arrays.fill(referenced, false);
+            usedSlots = 0;
+            hand = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int offset(Series series) {
+        return series.ordinal() * times.length;
+    }
+
+    /**
+     * The key's slot, taking a free one or, when all are taken, the next one the CLOCK hand finds unreferenced.
+     */
+    private int slotFor(String key) {
+        Integer existing = slots.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int slot;
+        if (usedSlots < maxCities) {
+            slot = usedSlots++;
+        } else {
+            slot = victim();
+            log.debug("History full, '{}' replaces '{}'", key, keys[slot]);
+            slots.remove(keys[slot]);
+        }
+        keys[slot] = key;
+        heads[slot] = 0;
+        counts[slot] = 0;
+        slots.put(key, slot);
+        return slot;
+    }
+
+    private int victim() {
+        // Ends within two sweeps: the first clears every bit it passes
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == maxCities ? 0 : hand + 1;
+        }
+        int slot = hand;
+        hand = hand + 1 == maxCities ? 0 : hand + 1;
+        return slot;
+    }
+
+    /**
+     * Result of {@link #aggregate}; reuse one instance per thread to keep queries allocation-free.
+     */
+    public static final class Aggregate {
+        private int count;
+        private double min;
+        private double max;
+        private double sum;
+        private long firstEpochSecond;
+        private long lastEpochSecond;
+
+        public Aggregate() {
+            reset();
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public double min() {
+            return count > 0 ? min : Double.NaN;
+        }
+
+        public double max() {
+            return count > 0 ? max : Double.NaN;
+        }
+
+        public double average() {
+            return count > 0 ? sum / count : Double.NaN;
+        }
+
+        public long firstEpochSecond() {
+            return firstEpochSecond;
+        }
+
+        public long lastEpochSecond() {
+            return lastEpochSecond;
+        }
+
+        private void reset() {
+            count = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+            sum = 0;
+            firstEpochSecond = 0;
+            lastEpochSecond = 0;
+        }
+
+        private void add(long time, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            if (count == 0) {
+                lastEpochSecond = time;
+            }
+            firstEpochSecond = time;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        @Override
+        public String toString() {
+            return "Aggregate[count=" + count + ", min=" + min() + ", max=" + max() + ", average=" + average() + "]";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.weather.infra;
+
+import com.weather.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Request timeout derived from the p99 latency of the previous window, multiplied by a safety factor and
+ * clamped to [min, max]. Windows rotate on the first sample after they end, so the value follows
+ * upstream latency within a minute without any background thread. Until a window has enough samples
+ * the maximum is used.
+ */
+final class AdaptiveTimeout {
+    private static final long WINDOW_NANOS = 60_000_000_000L;
+    private static final int MIN_SAMPLES = 20;
+
+    private final long minNanos;
+    private final long maxNanos;
+    private final double multiplier;
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(System.nanoTime()));
+    private volatile long timeoutNanos;
+
+    AdaptiveTimeout(long minNanos, long maxNanos, double multiplier) {
+        this.minNanos = Math.min(minNanos, maxNanos);
+        this.maxNanos = maxNanos;
+        this.multiplier = multiplier;
+        this.timeoutNanos = maxNanos;
+    }
+
+    long timeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * Records a completed call; timed out calls should be recorded with the timeout they hit so a slowdown
+     * raises the next window's timeout instead of being invisible.
+     */
+    void record(long latencyNanos) {
+        Window current = window.get();
+        current.histogram.record(latencyNanos);
+
+        long now = System.nanoTime();
+        if (now - current.start >= WINDOW_NANOS && window.compareAndSet(current, new Window(now))) {
+            if (current.histogram.snapshot().count() >= MIN_SAMPLES) {
+                long derived = (long) (current.histogram.percentile(0.99) * multiplier);
+                timeoutNanos = Math.max(minNanos, Math.min(maxNanos, derived));
+            }
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
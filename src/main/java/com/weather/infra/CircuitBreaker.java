@@ -0,0 +1,71 @@
+package com.weather.infra;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row calls are rejected
+ * for {@code openNanos}; the first call after that is let through as a probe and its outcome either
+ * closes the circuit or opens it again.
+ */
+final class CircuitBreaker {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Runnable onOpen;
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    CircuitBreaker(int failureThreshold, long openNanos, Runnable onOpen) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+        this.onOpen = onOpen;
+    }
+
+    boolean tryAcquire() {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN && System.nanoTime() - openedAt.get() >= openNanos) {
+            return state.compareAndSet(OPEN, HALF_OPEN);
+        }
+        return false;
+    }
+
+    long remainingOpenNanos() {
+        return state.get() == CLOSED ? 0 : Math.max(0, openNanos - (System.nanoTime() - openedAt.get()));
+    }
+
+    boolean isOpen() {
+        return state.get() != CLOSED;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(CLOSED);
+    }
+
+    void onFailure() {
+        int current = state.get();
+        if (current == OPEN) {
+            return;
+        }
+        if (current == HALF_OPEN) {
+            open(HALF_OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(CLOSED);
+        }
+    }
+
+    private void open(int from) {
+        openedAt.set(System.nanoTime());
+        if (state.compareAndSet(from, OPEN)) {
+            onOpen.run();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.weather.infra;
+
+import com.weather.config.HttpTransportConfig;
+import com.weather.util.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP client wrapper owned by a {@link OpenWeatherApi} (or shared between several of them).
+ * Bodies are handed to the parser as the stream the client receives them on, so parsing and gzip
+ * decompression proceed as bytes arrive instead of after the whole body is buffered. The parser reads that
+ * stream on the client's executor; a custom executor therefore needs a thread to spare for each
+ * response being parsed, which the default cached pool or virtual threads give.
+ */
+public class HttpTransport {
+    private static final Logger log = LoggerFactory.getLogger(HttpTransport.class);
+
+    private static final String KEEPALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    private final HttpClient client;
+    private final HttpTransportConfig config;
+
+    public HttpTransport(HttpTransportConfig config) {
+        this.config = config;
+
+        // The JDK client takes its pool keep-alive only from a JVM-wide system property, read once at startup;
+        // a library must not change it for every other client in the process, so only report a mismatch
+        String jvmKeepAlive = System.getProperty(KEEPALIVE_PROPERTY);
+        if (config.keepAliveSeconds() > 0 && !Integer.toString(config.keepAliveSeconds()).equals(jvmKeepAlive)) {
+            log.warn("Keep-alive of {} s is not applied: the JDK HTTP client only reads it from the JVM option "
+                            + "-D{}={} (currently {})", config.keepAliveSeconds(), KEEPALIVE_PROPERTY,
+                    config.keepAliveSeconds(), jvmKeepAlive != null ? jvmKeepAlive + " s" : "the JDK default");
+        }
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(config.connectTimeout())
+                .version(config.http2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+        if (config.executor() != null) {
+            builder.executor(config.executor());
+        }
+        this.client = builder.build();
+
+        log.debug("HTTP transport created (http2={}, gzip={}, connectTimeout={}, requestTimeout={})",
+                config.http2(), config.gzip(), config.connectTimeout(), config.requestTimeout());
+    }
+
+    public HttpTransportConfig config() {
+        return config;
+    }
+
+    public CompletableFuture<InputStream> get(URI uri) {
+        return get(uri, config.requestTimeout());
+    }
+
+    public CompletableFuture<InputStream> get(URI uri, Duration timeout) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(timeout)
+                .GET();
+        if (config.gzip()) {
+            request.header("Accept-Encoding", "gzip");
+        }
+
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        try {
+                            return body(response);
+                        } catch (IOException e) {
+                            close(response.body());
+                            throw new CompletionException(e);
+                        }
+                    }
+                    // Error bodies are short messages; read them whole for the exception
+                    String message;
+                    try (InputStream body = body(response)) {
+                        message = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        close(response.body());
+                        message = "";
+                    }
+                    throw new CompletionException(
+                            new HttpStatusException(response.statusCode(), message, retryAfter(response)));
+                });
+    }
+
+    /**
+     * Parses {@code Retry-After} in either of its forms: delta seconds or an HTTP date.
+     */
+    private static Duration retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After").map(value -> {
+            try {
+                return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                    return delay.isNegative() ? Duration.ZERO : delay;
+                } catch (DateTimeParseException ignored) {
+                    log.debug("Ignoring malformed Retry-After header '{}'", value);
+                    return null;
+                }
+            }
+        }).orElse(null);
+    }
+
+    private static InputStream body(HttpResponse<InputStream> response) throws IOException {
+        InputStream raw = response.body();
+        boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .map(v -> v.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzipped ? new GZIPInputStream(raw) : raw;
+    }
+
+    private static void close(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // Only releases the connection; nothing to report
+        }
+    }
+}
@@ -1,57 +1,188 @@
 package com.weather.infra;
 
+import com.weather.config.HttpTransportConfig;
 import com.weather.config.WeatherApiConfig;
+import com.weather.api.Location;
 import com.weather.api.WeatherData;
 import com.weather.api.WeatherSdkException;
-import com.weather.util.HttpUtils;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import com.weather.util.HttpStatusException;
 import com.weather.util.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class OpenWeatherApi implements WeatherApi {
 
     private static final Logger log = LoggerFactory.getLogger(OpenWeatherApi.class);
     private final WeatherApiConfig config;
+    private final WeatherMetrics metrics;
+    private final HttpTransport transport;
+    private final String queryPrefix;
+    private final String groupPrefix;
 
     public OpenWeatherApi(WeatherApiConfig config) {
+        this(config, WeatherMetrics.NOOP);
+    }
+
+    public OpenWeatherApi(WeatherApiConfig config, WeatherMetrics metrics) {
+        this(config, metrics, new HttpTransport(HttpTransportConfig.defaults()));
+    }
+
+    public OpenWeatherApi(WeatherApiConfig config, WeatherMetrics metrics, HttpTransport transport) {
         this.config = config;
+        this.metrics = metrics;
+        this.transport = transport;
+        // Everything but the location is fixed per client, so the URL is built once and only the city is appended
+        this.queryPrefix = config.baseUrl()
+                + "?appid=" + config.apiKey()
+                + "&units=" + config.units()
+                + "&lang=" + config.lang();
+        // The group endpoint is a sibling of /weather; other base URLs fall back to one call per city
+        String base = config.baseUrl();
+        this.groupPrefix = base != null && base.endsWith("/weather")
+                ? base.substring(0, base.length() - "weather".length()) + "group" + queryPrefix.substring(base.length())
+                : null;
     }
 
     @Override
     public WeatherData getWeather(String city) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(city), "weather for '" + city + "'");
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        return getWeatherAsync(Location.city(city));
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(Location location) {
+        return getWeatherAsync(location, transport.config().requestTimeout());
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(Location location, Duration timeout) {
         if (config.apiKey() == null || config.apiKey().isBlank() || config.apiKey().equals("replace_me")) {
             log.error("Missing or invalid API key. Check weather.properties or WEATHER_API_KEY env var.");
-            throw new WeatherSdkException("Missing or invalid API key. Check weather.properties or environment variable WEATHER_API_KEY.");
+            return CompletableFuture.failedFuture(new WeatherSdkException(
+                    "Missing or invalid API key. Check weather.properties or environment variable WEATHER_API_KEY."));
         }
 
-        try {
-            String encodedCity = URLEncoder.encode(city, StandardCharsets.UTF_8);
-            String url = String.format(
-                    "%s?q=%s&appid=%s&units=%s&lang=%s",
-                    config.baseUrl(),
-                    encodedCity,
-                    config.apiKey(),
-                    config.units(),
-                    config.lang()
-            );
+        String city = describe(location);
+        String url = queryPrefix + query(location);
 
-            log.info("Requesting weather for '{}'", city);
-            log.debug("Full URL: {}", url);
+        log.info("Requesting weather for '{}'", city);
+        log.debug("Full URL: {}", url);
+        return request(url, "'" + city + "'", timeout, JsonUtils::parseWeather);
+    }
 
-            String response = HttpUtils.get(url);
+    @Override
+    public CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds) {
+        return getWeatherGroupAsync(cityIds, transport.config().requestTimeout());
+    }
 
-            log.info("Successfully received response for '{}'", city);
-            log.trace("Raw JSON response ({} chars)", response.length());
+    /**
+     * One {@code /group} call for all IDs; counts as a single call against the API key's quota.
+     */
+    @Override
+    public CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds, Duration timeout) {
+        if (groupPrefix == null) {
+            return WeatherApi.super.getWeatherGroupAsync(cityIds);
+        }
+        if (cityIds.size() > MAX_GROUP_SIZE) {
+            return CompletableFuture.failedFuture(new WeatherSdkException(
+                    "At most " + MAX_GROUP_SIZE + " city IDs per group call, got " + cityIds.size()));
+        }
+        if (config.apiKey() == null || config.apiKey().isBlank() || config.apiKey().equals("replace_me")) {
+            log.error("Missing or invalid API key. Check weather.properties or WEATHER_API_KEY env var.");
+            return CompletableFuture.failedFuture(new WeatherSdkException(
+                    "Missing or invalid API key. Check weather.properties or environment variable WEATHER_API_KEY."));
+        }
+
+        StringJoiner ids = new StringJoiner(",");
+        cityIds.forEach(id -> ids.add(Long.toString(id)));
+        String url = groupPrefix + "&id=" + ids;
+        String what = cityIds.size() + " cities";
+
+        log.info("Requesting weather for {} in one group call", what);
+        log.debug("Full URL: {}", url);
+        return request(url, what, timeout, body -> {
+            Map<Long, WeatherData> results = new HashMap<>();
+            for (WeatherData data : JsonUtils.parseWeatherGroup(body)) {
+                results.put(data.id(), data);
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public boolean supportsGroup() {
+        return groupPrefix != null;
+    }
 
-            return JsonUtils.parseWeather(response);
-        } catch (WeatherSdkException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("Network error while calling OpenWeather API for '{}': {}", city, e.getMessage());
-            throw new WeatherSdkException("Network error while calling OpenWeather API", e);
+    private <T> CompletableFuture<T> request(String url, String what, Duration timeout, BodyParser<T> parser) {
+        long start = System.nanoTime();
+        return transport.get(URI.create(url), timeout)
+                .thenApply(body -> {
+                    metrics.upstreamResponse(200, System.nanoTime() - start);
+                    log.info("Successfully received response for {}", what);
+                    try (body) {
+                        return parser.parse(body);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                })
+                .exceptionallyCompose(e -> {
+                    Throwable cause = FutureUtils.unwrap(e);
+                    metrics.upstreamFailure();
+                    if (cause instanceof HttpStatusException status) {
+                        metrics.upstreamResponse(status.statusCode(), System.nanoTime() - start);
+                    }
+                    if (cause instanceof WeatherSdkException sdk) {
+                        log.error("Invalid OpenWeather API response for {}: {}", what, sdk.getMessage());
+                        return CompletableFuture.failedFuture(sdk);
+                    }
+                    log.error("Network error while calling OpenWeather API for {}: {}", what, cause.getMessage());
+                    return CompletableFuture.failedFuture(
+                            new WeatherSdkException("Network error while calling OpenWeather API", cause));
+                });
+    }
+
+    private static String query(Location location) {
+        if (location instanceof Location.CityId id) {
+            return "&id=" + id.id();
+        }
+        if (location instanceof Location.Coordinates c) {
+            return "&lat=" + c.lat() + "&lon=" + c.lon();
         }
+        return "&q=" + URLEncoder.encode(((Location.City) location).name(), StandardCharsets.UTF_8);
+    }
+
+    private static String describe(Location location) {
+        if (location instanceof Location.CityId id) {
+            return "id " + id.id();
+        }
+        if (location instanceof Location.Coordinates c) {
+            return c.lat() + "," + c.lon();
+        }
+        return ((Location.City) location).name();
+    }
+
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws IOException, WeatherSdkException;
     }
 }
@@ -0,0 +1,259 @@
+package com.weather.infra;
+
+import com.weather.api.Location;
+import com.weather.api.UpstreamUnavailableException;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.config.ResilienceConfig;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import com.weather.util.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Decorates a {@link WeatherApi} with a circuit breaker, latency-derived timeouts and jittered retries
+ * limited by a shared retry budget. A 429 response stops all calls until its {@code Retry-After} has
+ * passed. Rejected calls fail immediately with {@link UpstreamUnavailableException}, which the client
+ * answers from stale cache when it can.
+ * <p>
+ * A 429 is waited out in line when its {@code Retry-After} is within {@code maxRetryDelay}; calls made through
+ * {@link #interactive()} instead fail fast once the wait would exceed the current timeout, so a user is not
+ * held for a delay only a background refresh can afford.
+ */
+public class ResilientWeatherApi implements WeatherApi {
+    private static final Logger log = LoggerFactory.getLogger(ResilientWeatherApi.class);
+
+    // Used when a 429 carries no Retry-After header
+    private static final long DEFAULT_THROTTLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final WeatherApi delegate;
+    private final ResilienceConfig config;
+    private final WeatherMetrics metrics;
+    private final CircuitBreaker breaker;
+    private final AdaptiveTimeout timeout;
+    private final RetryBudget retryBudget;
+    private final AtomicLong throttledUntil = new AtomicLong(System.nanoTime());
+    private volatile BooleanSupplier retryPermits = () -> true;
+    private final WeatherApi interactive = new Interactive();
+
+    public ResilientWeatherApi(WeatherApi delegate, ResilienceConfig config, WeatherMetrics metrics) {
+        this.delegate = delegate;
+        this.config = config;
+        this.metrics = metrics;
+        this.breaker = new CircuitBreaker(config.failureThreshold(), config.openDuration().toNanos(), () -> {
+            metrics.circuitOpened();
+            log.warn("Circuit opened after {} consecutive upstream failures, rejecting calls for {}",
+                    config.failureThreshold(), config.openDuration());
+        });
+        this.timeout = new AdaptiveTimeout(config.minTimeout().toNanos(), config.maxTimeout().toNanos(),
+                config.timeoutMultiplier());
+        this.retryBudget = new RetryBudget(config.retryBudgetRatio(), 10);
+    }
+
+    @Override
+    public WeatherData getWeather(String city) throws WeatherSdkException {
+        return FutureUtils.await(getWeatherAsync(city), "weather for '" + city + "'");
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        return getWeatherAsync(Location.city(city));
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherAsync(Location location) {
+        retryBudget.onRequest();
+        return attempt(timeout -> delegate.getWeatherAsync(location, timeout), location, 0, false);
+    }
+
+    @Override
+    public CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds) {
+        retryBudget.onRequest();
+        List<Long> ids = List.copyOf(cityIds);
+        return attempt(timeout -> delegate.getWeatherGroupAsync(ids, timeout), "group of " + ids.size(), 0, false);
+    }
+
+    @Override
+    public boolean supportsGroup() {
+        return delegate.supportsGroup();
+    }
+
+    /**
+     * Consulted before every retry, so retries count against the API key's quota like first attempts do.
+     * A retry it refuses fails with {@link UpstreamUnavailableException}.
+     */
+    public void retryPermits(BooleanSupplier permits) {
+        this.retryPermits = permits;
+    }
+
+    /**
+     * A view sharing this API's breaker, timeouts and budgets for calls someone is waiting on: it does not wait
+     * out a rate limit longer than the current timeout.
+     */
+    public WeatherApi interactive() {
+        return interactive;
+    }
+
+    public boolean isCircuitOpen() {
+        return breaker.isOpen();
+    }
+
+    public Duration currentTimeout() {
+        return Duration.ofNanos(timeout.timeoutNanos());
+    }
+
+    private <T> CompletableFuture<T> attempt(Function<Duration, CompletableFuture<T>> request, Object target,
+                                             int attempt, boolean interactive) {
+        long throttled = throttledUntil.get() - System.nanoTime();
+        if (throttled > 0) {
+            metrics.upstreamRejected();
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                    "OpenWeather API rate limit reached, backing off", Duration.ofNanos(throttled)));
+        }
+        // Before the breaker: a half-open probe taken for a call the quota then refuses would never be returned
+        if (attempt > 0 && !retryPermits.getAsBoolean()) {
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                    "OpenWeather API quota used up for this key", null));
+        }
+        if (!breaker.tryAcquire()) {
+            metrics.upstreamRejected();
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                    "OpenWeather API circuit is open", Duration.ofNanos(breaker.remainingOpenNanos())));
+        }
+
+        long timeoutNanos = timeout.timeoutNanos();
+        long start = System.nanoTime();
+        CompletableFuture<T> call;
+        try {
+            call = request.apply(Duration.ofNanos(timeoutNanos));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        return call.handle((data, error) -> {
+            if (error == null) {
+                timeout.record(System.nanoTime() - start);
+                breaker.onSuccess();
+                return CompletableFuture.completedFuture(data);
+            }
+            return onFailure(request, target, attempt, interactive, FutureUtils.unwrap(error), timeoutNanos);
+        }).thenCompose(f -> f);
+    }
+
+    private <T> CompletableFuture<T> onFailure(Function<Duration, CompletableFuture<T>> request, Object target,
+                                               int attempt, boolean interactive, Throwable error,
+                                               long timeoutNanos) {
+        HttpStatusException status = statusOf(error);
+        long delayNanos;
+
+        if (status != null && status.statusCode() == 429) {
+            // The API is healthy, we are over quota: back off globally instead of tripping the breaker
+            breaker.onSuccess();
+            delayNanos = status.retryAfter() != null ? status.retryAfter().toNanos() : DEFAULT_THROTTLE_NANOS;
+            throttle(delayNanos);
+            log.warn("OpenWeather API rate limit hit, backing off for {} ms", TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            if (interactive && delayNanos > timeout.timeoutNanos()) {
+                return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                        "OpenWeather API rate limit reached, backing off", Duration.ofNanos(delayNanos)));
+            }
+        } else if (isRetryable(error, status)) {
+            if (isTimeout(error)) {
+                timeout.record(timeoutNanos);
+            }
+            breaker.onFailure();
+            long ceiling = config.retryBackoff().toNanos() << Math.min(attempt, 16);
+            delayNanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        } else {
+            // 404, bad API key, unparsable body: the upstream answered, retrying cannot help
+            breaker.onSuccess();
+            return CompletableFuture.failedFuture(error);
+        }
+
+        if (attempt >= config.maxRetries() || delayNanos > config.maxRetryDelay().toNanos()
+                || breaker.isOpen() || !retryBudget.tryWithdraw()) {
+            return CompletableFuture.failedFuture(error);
+        }
+
+        metrics.upstreamRetry();
+        log.debug("Retrying {} in {} ms (attempt {})", target, TimeUnit.NANOSECONDS.toMillis(delayNanos), attempt + 1);
+        return CompletableFuture.supplyAsync(() -> attempt(request, target, attempt + 1, interactive),
+                        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(f -> f);
+    }
+
+    private void throttle(long delayNanos) {
+        long until = System.nanoTime() + delayNanos;
+        throttledUntil.getAndUpdate(current -> until - current > 0 ? until : current);
+    }
+
+    private static boolean isRetryable(Throwable error, HttpStatusException status) {
+        if (status != null) {
+            return status.statusCode() >= 500 || status.statusCode() == 408;
+        }
+        // Other WeatherSdkExceptions without a cause are validation or parsing errors
+        return !(error instanceof WeatherSdkException) || error.getCause() != null;
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpStatusException statusOf(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException status) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private final class Interactive implements WeatherApi {
+        @Override
+        public WeatherData getWeather(String city) throws WeatherSdkException {
+            return FutureUtils.await(getWeatherAsync(city), "weather for '" + city + "'");
+        }
+
+        @Override
+        public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+            return getWeatherAsync(Location.city(city));
+        }
+
+        @Override
+        public CompletableFuture<WeatherData> getWeatherAsync(Location location) {
+            retryBudget.onRequest();
+            return attempt(timeout -> delegate.getWeatherAsync(location, timeout), location, 0, true);
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds) {
+            retryBudget.onRequest();
+            List<Long> ids = List.copyOf(cityIds);
+            return attempt(timeout -> delegate.getWeatherGroupAsync(ids, timeout), "group of " + ids.size(), 0,
+                    true);
+        }
+
+        @Override
+        public boolean supportsGroup() {
+            return delegate.supportsGroup();
+        }
+    }
+}
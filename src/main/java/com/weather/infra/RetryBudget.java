@@ -0,0 +1,39 @@
+package com.weather.infra;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a fraction of first attempts: every request deposits {@code ratio} of a token,
+ * every retry spends a whole one. During an outage the budget drains and retries stop, so they
+ * can never multiply load by more than {@code 1 + ratio}.
+ */
+final class RetryBudget {
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(Math.max(0, ratio) * UNIT);
+        this.capacity = Math.max(0, maxTokens) * UNIT;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void onRequest() {
+        if (deposit > 0) {
+            balance.getAndUpdate(b -> Math.min(capacity, b + deposit));
+        }
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+}
@@ -1,8 +1,64 @@
 package com.weather.infra;
 
+import com.weather.api.Location;
 import com.weather.api.WeatherData;
 import com.weather.api.WeatherSdkException;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 public interface WeatherApi {
+    /**
+     * Most city IDs OpenWeather accepts in one {@code /group} call.
+     */
+    int MAX_GROUP_SIZE = 20;
+
     WeatherData getWeather(String city) throws WeatherSdkException;
+
+    default CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        try {
+            return CompletableFuture.completedFuture(getWeather(city));
+        } catch (WeatherSdkException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    default CompletableFuture<WeatherData> getWeatherAsync(Location location) {
+        if (location instanceof Location.City city) {
+            return getWeatherAsync(city.name());
+        }
+        return CompletableFuture.failedFuture(
+                new WeatherSdkException("Lookup by " + location + " is not supported by " + getClass().getSimpleName()));
+    }
+
+    default CompletableFuture<WeatherData> getWeatherAsync(Location location, Duration timeout) {
+        return getWeatherAsync(location).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Current weather for up to {@link #MAX_GROUP_SIZE} city IDs, keyed by ID. IDs the API has no data for
+     * are missing from the result. Implementations without a batch endpoint issue one call per ID.
+     */
+    default CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds) {
+        Map<Long, WeatherData> results = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] calls = cityIds.stream()
+                .map(id -> getWeatherAsync(Location.id(id)).thenAccept(data -> results.put(id, data)))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(calls).thenApply(ignored -> results);
+    }
+
+    default CompletableFuture<Map<Long, WeatherData>> getWeatherGroupAsync(Collection<Long> cityIds, Duration timeout) {
+        return getWeatherGroupAsync(cityIds).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether {@link #getWeatherGroupAsync} makes a single upstream call rather than one per ID.
+     */
+    default boolean supportsGroup() {
+        return false;
+    }
 }
@@ -0,0 +1,159 @@
+package com.weather.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DefaultWeatherMetrics implements WeatherMetrics {
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheExpirations = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+    private final LongAdder cacheReclaims = new LongAdder();
+    private final LongAdder cacheStaleHits = new LongAdder();
+    private final LongAdder refreshAheads = new LongAdder();
+    private final LongAdder sharedCacheHits = new LongAdder();
+    private final LongAdder sharedCacheMisses = new LongAdder();
+    private final LongAdder coalescedWaits = new LongAdder();
+    private final LongAdder upstreamFailures = new LongAdder();
+    private final LongAdder upstreamRetries = new LongAdder();
+    private final LongAdder upstreamRejections = new LongAdder();
+    private final LongAdder circuitOpenings = new LongAdder();
+    private final LongAdder quotaWarnings = new LongAdder();
+    private final LongAdder quotaRejections = new LongAdder();
+    private final Map<Integer, LongAdder> upstreamStatusCodes = new ConcurrentHashMap<>();
+    private final LatencyHistogram upstreamLatency = new LatencyHistogram();
+    private final LatencyHistogram pollCycleDuration = new LatencyHistogram();
+    private final LongAdder pollOverruns = new LongAdder();
+
+    @Override
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void cacheExpired() {
+        cacheExpirations.increment();
+    }
+
+    @Override
+    public void cacheEviction() {
+        cacheEvictions.increment();
+    }
+
+    @Override
+    public void cacheReclaimed() {
+        cacheReclaims.increment();
+    }
+
+    @Override
+    public void cacheStaleHit() {
+        cacheStaleHits.increment();
+    }
+
+    @Override
+    public void refreshAhead() {
+        refreshAheads.increment();
+    }
+
+    @Override
+    public void sharedCacheHit() {
+        sharedCacheHits.increment();
+    }
+
+    @Override
+    public void sharedCacheMiss() {
+        sharedCacheMisses.increment();
+    }
+
+    @Override
+    public void coalescedWait() {
+        coalescedWaits.increment();
+    }
+
+    @Override
+    public void upstreamResponse(int statusCode, long latencyNanos) {
+        upstreamStatusCodes.computeIfAbsent(statusCode, k -> new LongAdder()).increment();
+        upstreamLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void upstreamFailure() {
+        upstreamFailures.increment();
+    }
+
+    @Override
+    public void upstreamRetry() {
+        upstreamRetries.increment();
+    }
+
+    @Override
+    public void upstreamRejected() {
+        upstreamRejections.increment();
+    }
+
+    @Override
+    public void circuitOpened() {
+        circuitOpenings.increment();
+    }
+
+    @Override
+    public void quotaWarning() {
+        quotaWarnings.increment();
+    }
+
+    @Override
+    public void quotaRejected() {
+        quotaRejections.increment();
+    }
+
+    @Override
+    public void pollCycle(long durationNanos) {
+        pollCycleDuration.record(durationNanos);
+    }
+
+    @Override
+    public void pollOverrun() {
+        pollOverruns.increment();
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<Integer, Long> statusCodes = new TreeMap<>();
+        upstreamStatusCodes.forEach((code, counter) -> statusCodes.put(code, counter.sum()));
+        LatencySnapshot upstream = upstreamLatency.snapshot();
+        LatencySnapshot polling = pollCycleDuration.snapshot();
+
+        return new MetricsSnapshot(
+                cacheHits.sum(),
+                cacheMisses.sum(),
+                cacheExpirations.sum(),
+                cacheEvictions.sum(),
+                cacheReclaims.sum(),
+                cacheStaleHits.sum(),
+                refreshAheads.sum(),
+                sharedCacheHits.sum(),
+                sharedCacheMisses.sum(),
+                coalescedWaits.sum(),
+                upstreamFailures.sum(),
+                upstreamRetries.sum(),
+                upstreamRejections.sum(),
+                circuitOpenings.sum(),
+                quotaWarnings.sum(),
+                quotaRejections.sum(),
+                Collections.unmodifiableMap(statusCodes),
+                upstream,
+                polling.count(),
+                polling,
+                pollOverruns.sum()
+        );
+    }
+}
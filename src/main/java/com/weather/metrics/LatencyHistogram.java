@@ -0,0 +1,101 @@
+package com.weather.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size log-linear histogram: each power of two is split into 8 linear sub-buckets,
+ * giving ~12.5% relative precision with a single array increment per record.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] counts = counts();
+        long total = total(counts);
+        if (total == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        long maxValue = max.get();
+        return new LatencySnapshot(
+                total,
+                sum.sum() / Math.max(1, count.sum()),
+                Math.min(maxValue, percentile(counts, total, 0.50)),
+                Math.min(maxValue, percentile(counts, total, 0.90)),
+                Math.min(maxValue, percentile(counts, total, 0.99)),
+                Math.min(maxValue, percentile(counts, total, 0.999)),
+                maxValue
+        );
+    }
+
+    public long percentile(double quantile) {
+        long[] counts = counts();
+        long total = total(counts);
+        return total == 0 ? 0 : Math.min(max.get(), percentile(counts, total, quantile));
+    }
+
+    private long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    private static long total(long[] counts) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(counts.length - 1);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long base = 1L << exponent;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return base + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.weather.metrics;
+
+public record LatencySnapshot(
+        long count,
+        long meanNanos,
+        long p50Nanos,
+        long p90Nanos,
+        long p99Nanos,
+        long p999Nanos,
+        long maxNanos
+) {
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0, 0);
+}
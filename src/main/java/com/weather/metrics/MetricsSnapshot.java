@@ -0,0 +1,39 @@
+package com.weather.metrics;
+
+import java.util.Map;
+
+public record MetricsSnapshot(
+        long cacheHits,
+        long cacheMisses,
+        long cacheExpirations,
+        long cacheEvictions,
+        long cacheReclaims,
+        long cacheStaleHits,
+        long refreshAheads,
+        long sharedCacheHits,
+        long sharedCacheMisses,
+        long coalescedWaits,
+        long upstreamFailures,
+        long upstreamRetries,
+        long upstreamRejections,
+        long circuitOpenings,
+        long quotaWarnings,
+        long quotaRejections,
+        Map<Integer, Long> upstreamStatusCodes,
+        LatencySnapshot upstreamLatency,
+        long pollCycles,
+        LatencySnapshot pollCycleDuration,
+        long pollOverruns
+) {
+    public static final MetricsSnapshot EMPTY = new MetricsSnapshot(
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, Map.of(), LatencySnapshot.EMPTY, 0, LatencySnapshot.EMPTY, 0);
+
+    public long upstreamResponses() {
+        return upstreamLatency.count();
+    }
+
+    public double cacheHitRatio() {
+        long total = cacheHits + cacheMisses + cacheExpirations;
+        return total == 0 ? 0.0 : (double) cacheHits / total;
+    }
+}
@@ -0,0 +1,55 @@
+package com.weather.metrics;
+
+/**
+ * Instrumentation hooks called from the cache, client, HTTP and polling hot paths.
+ * Implementations must be thread-safe and cheap; every method defaults to a no-op.
+ */
+public interface WeatherMetrics {
+
+    WeatherMetrics NOOP = new WeatherMetrics() {};
+
+    default void cacheHit() {}
+
+    default void cacheMiss() {}
+
+    default void cacheExpired() {}
+
+    default void cacheEviction() {}
+
+    default void cacheReclaimed() {}
+
+    default void cacheStaleHit() {}
+
+    default void refreshAhead() {}
+
+    default void sharedCacheHit() {}
+
+    default void sharedCacheMiss() {}
+
+    default void coalescedWait() {}
+
+    default void upstreamResponse(int statusCode, long latencyNanos) {}
+
+    default void upstreamFailure() {}
+
+    default void upstreamRetry() {}
+
+    default void upstreamRejected() {}
+
+    default void circuitOpened() {}
+
+    /**
+     * An API key has crossed the warning share of a quota window; fires once per window.
+     */
+    default void quotaWarning() {}
+
+    default void quotaRejected() {}
+
+    default void pollCycle(long durationNanos) {}
+
+    default void pollOverrun() {}
+
+    default MetricsSnapshot snapshot() {
+        return MetricsSnapshot.EMPTY;
+    }
+}
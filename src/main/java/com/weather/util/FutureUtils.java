@@ -0,0 +1,58 @@
+package com.weather.util;
+
+import com.weather.api.WeatherSdkException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public final class FutureUtils {
+
+    private FutureUtils() {}
+
+    public static <T> T await(CompletableFuture<T> future, String what) throws WeatherSdkException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw toSdkException(e.getCause(), what);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherSdkException("Interrupted while waiting for " + what, e);
+        }
+    }
+
+    /**
+     * Like {@link #await(CompletableFuture, String)}, but gives up after {@code timeout} and cancels the future.
+     */
+    public static <T> T await(CompletableFuture<T> future, String what, long timeout, TimeUnit unit)
+            throws WeatherSdkException {
+        try {
+            return future.get(timeout, unit);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new WeatherSdkException("Timed out after " + unit.toMillis(timeout) + " ms waiting for " + what, e);
+        } catch (ExecutionException e) {
+            throw toSdkException(e.getCause(), what);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherSdkException("Interrupted while waiting for " + what, e);
+        }
+    }
+
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    public static WeatherSdkException toSdkException(Throwable t, String what) {
+        Throwable cause = unwrap(t);
+        if (cause instanceof WeatherSdkException sdk) {
+            return sdk;
+        }
+        return new WeatherSdkException("Failed to load " + what, cause);
+    }
+}
@@ -0,0 +1,30 @@
+package com.weather.util;
+
+import java.io.IOException;
+import java.time.Duration;
+
+public class HttpStatusException extends IOException {
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public HttpStatusException(int statusCode, String body) {
+        this(statusCode, body, null);
+    }
+
+    public HttpStatusException(int statusCode, String body, Duration retryAfter) {
+        super("HTTP error: " + statusCode + " - " + body);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Delay requested by the server's {@code Retry-After} header, or {@code null} when it sent none.
+     */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,50 +1,253 @@
 package com.weather.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class JsonUtils {
 
     private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory factory = mapper.getFactory();
+    // Writers are immutable and thread-safe; building one per call costs more than the write itself
+    private static final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter compactWriter = mapper.writerFor(WeatherData.class);
+
+    private static final int WEATHER = 1;
+    private static final int MAIN = 1 << 1;
+    private static final int VISIBILITY = 1 << 2;
+    private static final int WIND = 1 << 3;
+    private static final int DT = 1 << 4;
+    private static final int SYS = 1 << 5;
+    private static final int TIMEZONE = 1 << 6;
+    private static final int NAME = 1 << 7;
+    private static final int ALL = (1 << 8) - 1;
+    private static final String[] FIELD_NAMES = {
+            "weather", "main", "visibility", "wind", "dt", "sys", "timezone", "name"
+    };
 
     private JsonUtils() {}
 
-    public static WeatherData parseWeather(String json) throws Exception {
-        JsonNode node = mapper.readTree(json);
+    public static WeatherData parseWeather(String json) throws IOException, WeatherSdkException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return readWeather(parser);
+        }
+    }
 
-        var weather = new WeatherData.Weather(
-                node.get("weather").get(0).get("main").asText(),
-                node.get("weather").get(0).get("description").asText()
-        );
+    public static WeatherData parseWeather(byte[] json) throws IOException, WeatherSdkException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return readWeather(parser);
+        }
+    }
 
-        var temperature = new WeatherData.Temperature(
-                node.get("main").get("temp").asDouble(),
-                node.get("main").get("feels_like").asDouble()
-        );
+    public static WeatherData parseWeather(InputStream json) throws IOException, WeatherSdkException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return readWeather(parser);
+        }
+    }
 
-        var wind = new WeatherData.Wind(
-                node.get("wind").get("speed").asDouble()
-        );
+    /**
+     * Parses a {@code /group} response, {@code {"cnt":n,"list":[...]}}, whose list items have the single-city
+     * layout except that the timezone sits in {@code sys}.
+     */
+    public static List<WeatherData> parseWeatherGroup(InputStream json) throws IOException, WeatherSdkException {
+        try (JsonParser p = factory.createParser(json)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT, "root");
+            List<WeatherData> list = new ArrayList<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!field.equals("list")) {
+                    p.skipChildren();
+                    continue;
+                }
+                expect(value, JsonToken.START_ARRAY, field);
+                JsonToken element;
+                while ((element = p.nextToken()) == JsonToken.START_OBJECT) {
+                    list.add(readWeatherObject(p));
+                }
+                expect(element, JsonToken.END_ARRAY, field);
+            }
+            return list;
+        }
+    }
 
-        var sys = new WeatherData.Sys(
-                node.get("sys").get("sunrise").asLong(),
-                node.get("sys").get("sunset").asLong()
-        );
+    private static WeatherData readWeather(JsonParser p) throws IOException, WeatherSdkException {
+        expect(p.nextToken(), JsonToken.START_OBJECT, "root");
+        return readWeatherObject(p);
+    }
+
+    private static WeatherData readWeatherObject(JsonParser p) throws IOException, WeatherSdkException {
+
+        String main = null;
+        String description = null;
+        double temp = 0;
+        double feelsLike = 0;
+        int visibility = 0;
+        double windSpeed = 0;
+        long dt = 0;
+        long sunrise = 0;
+        long sunset = 0;
+        int timezone = 0;
+        String name = null;
+        long id = 0;
+        int seen = 0;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "weather" -> {
+                    expect(value, JsonToken.START_ARRAY, field);
+                    JsonToken element = p.nextToken();
+                    if (element == JsonToken.START_OBJECT) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String inner = p.currentName();
+                            p.nextToken();
+                            if (inner.equals("main")) {
+                                main = p.getValueAsString();
+                            } else if (inner.equals("description")) {
+                                description = p.getValueAsString();
+                            } else {
+                                p.skipChildren();
+                            }
+                        }
+                        if (main != null && description != null) {
+                            seen |= WEATHER;
+                        }
+                        element = p.nextToken();
+                    }
+                    while (element != null && element != JsonToken.END_ARRAY) {
+                        p.skipChildren();
+                        element = p.nextToken();
+                    }
+                }
+                case "main" -> {
+                    expect(value, JsonToken.START_OBJECT, field);
+                    int found = 0;
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String inner = p.currentName();
+                        p.nextToken();
+                        if (inner.equals("temp")) {
+                            temp = p.getValueAsDouble();
+                            found |= 1;
+                        } else if (inner.equals("feels_like")) {
+                            feelsLike = p.getValueAsDouble();
+                            found |= 2;
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                    if (found == 3) {
+                        seen |= MAIN;
+                    }
+                }
+                case "wind" -> {
+                    expect(value, JsonToken.START_OBJECT, field);
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String inner = p.currentName();
+                        p.nextToken();
+                        if (inner.equals("speed")) {
+                            windSpeed = p.getValueAsDouble();
+                            seen |= WIND;
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                }
+                case "sys" -> {
+                    expect(value, JsonToken.START_OBJECT, field);
+                    int found = 0;
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String inner = p.currentName();
+                        p.nextToken();
+                        if (inner.equals("sunrise")) {
+                            sunrise = p.getValueAsLong();
+                            found |= 1;
+                        } else if (inner.equals("sunset")) {
+                            sunset = p.getValueAsLong();
+                            found |= 2;
+                        } else if (inner.equals("timezone")) {
+                            timezone = p.getValueAsInt();
+                            seen |= TIMEZONE;
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                    if (found == 3) {
+                        seen |= SYS;
+                    }
+                }
+                case "visibility" -> {
+                    visibility = p.getValueAsInt();
+                    seen |= VISIBILITY;
+                }
+                case "dt" -> {
+                    dt = p.getValueAsLong();
+                    seen |= DT;
+                }
+                case "timezone" -> {
+                    timezone = p.getValueAsInt();
+                    seen |= TIMEZONE;
+                }
+                case "name" -> {
+                    name = p.getValueAsString();
+                    seen |= NAME;
+                }
+                case "id" -> id = p.getValueAsLong();
+                default -> p.skipChildren();
+            }
+        }
+
+        if (seen != ALL) {
+            throw new WeatherSdkException("Malformed weather response: missing field '" + firstMissing(seen) + "'");
+        }
 
         return new WeatherData(
-                weather,
-                temperature,
-                node.get("visibility").asInt(),
-                wind,
-                node.get("dt").asLong(),
-                sys,
-                node.get("timezone").asInt(),
-                node.get("name").asText()
+                new WeatherData.Weather(main, description),
+                new WeatherData.Temperature(temp, feelsLike),
+                visibility,
+                new WeatherData.Wind(windSpeed),
+                dt,
+                new WeatherData.Sys(sunrise, sunset),
+                timezone,
+                name,
+                id
         );
     }
 
+    private static void expect(JsonToken actual, JsonToken expected, String field) throws WeatherSdkException {
+        if (actual != expected) {
+            throw new WeatherSdkException("Malformed weather response: expected " + expected + " for '" + field
+                    + "' but got " + actual);
+        }
+    }
+
+    private static String firstMissing(int seen) {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if ((seen & (1 << i)) == 0) {
+                return FIELD_NAMES[i];
+            }
+        }
+        return "?";
+    }
+
     public static String toJson(Object obj) throws Exception {
-        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(obj);
+        return prettyWriter.writeValueAsString(obj);
+    }
+
+    /**
+     * Compact UTF-8 JSON with the same layout as {@link #toJson}.
+     */
+    public static byte[] toJsonBytes(WeatherData data) throws IOException {
+        return compactWriter.writeValueAsBytes(data);
     }
 }
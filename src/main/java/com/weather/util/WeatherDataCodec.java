@@ -0,0 +1,68 @@
+package com.weather.util;
+
+import com.weather.api.WeatherData;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary layout for {@link WeatherData}: fixed-width numbers plus modified UTF-8 strings.
+ */
+public final class WeatherDataCodec {
+
+    private WeatherDataCodec() {}
+
+    public static void write(DataOutput out, WeatherData data) throws IOException {
+        writeString(out, data.weather().main());
+        writeString(out, data.weather().description());
+        out.writeDouble(data.temperature().temp());
+        out.writeDouble(data.temperature().feels_like());
+        out.writeInt(data.visibility());
+        out.writeDouble(data.wind().speed());
+        out.writeLong(data.datetime());
+        out.writeLong(data.sys().sunrise());
+        out.writeLong(data.sys().sunset());
+        out.writeInt(data.timezone());
+        writeString(out, data.name());
+        out.writeLong(data.id());
+    }
+
+    public static WeatherData read(DataInput in) throws IOException {
+        String main = readString(in);
+        String description = readString(in);
+        double temp = in.readDouble();
+        double feelsLike = in.readDouble();
+        int visibility = in.readInt();
+        double windSpeed = in.readDouble();
+        long datetime = in.readLong();
+        long sunrise = in.readLong();
+        long sunset = in.readLong();
+        int timezone = in.readInt();
+        String name = readString(in);
+        long id = in.readLong();
+
+        return new WeatherData(
+                new WeatherData.Weather(main, description),
+                new WeatherData.Temperature(temp, feelsLike),
+                visibility,
+                new WeatherData.Wind(windSpeed),
+                datetime,
+                new WeatherData.Sys(sunrise, sunset),
+                timezone,
+                name,
+                id
+        );
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
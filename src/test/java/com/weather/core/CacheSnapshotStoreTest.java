@@ -0,0 +1,89 @@
+package com.weather.core;
+
+import com.weather.api.CacheType;
+import com.weather.api.Location;
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.WeatherDataCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.weather.core.WeatherCacheEngineTest.data;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheSnapshotStoreTest {
+
+    private static final int MAGIC = 0x57534E50;
+    private static final long MAX_AGE = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    private static WeatherCache cache() {
+        return WeatherCache.create(CacheType.CONCURRENT, 100, 0, CachePolicies.uniform(10, 0), Ticker.SYSTEM,
+                WeatherMetrics.NOOP);
+    }
+
+    @Test
+    void restoresEntriesAndAliasesSaved() throws Exception {
+        Path file = dir.resolve("cache.bin");
+        WeatherCache source = cache();
+        LocationKeys sourceKeys = new LocationKeys(0.1, 100);
+        source.put("id:2643743", data("London"));
+        source.put("paris", data("Paris"));
+        sourceKeys.alias("london", "id:2643743");
+        new CacheSnapshotStore(file, source, sourceKeys).save();
+
+        WeatherCache target = cache();
+        LocationKeys targetKeys = new LocationKeys(0.1, 100);
+        assertEquals(2, new CacheSnapshotStore(file, target, targetKeys).restore(MAX_AGE));
+
+        assertEquals("London", target.get("id:2643743").name());
+        assertEquals("Paris", target.get("paris").name());
+        assertEquals("id:2643743", targetKeys.keyOf(Location.city("London")));
+    }
+
+    @Test
+    void readsVersionTwoSnapshotsWithoutAliases() throws Exception {
+        Path file = dir.resolve("v2.bin");
+        long now = System.currentTimeMillis();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(2);
+            out.writeInt(2);
+            out.writeUTF("id:2643743");
+            out.writeLong(now - 1_000);
+            WeatherDataCodec.write(out, data("London"));
+            out.writeUTF("rome");
+            out.writeLong(now - 2 * MAX_AGE);
+            WeatherDataCodec.write(out, data("Rome"));
+        }
+
+        WeatherCache target = cache();
+        LocationKeys keys = new LocationKeys(0.1, 100);
+        assertEquals(1, new CacheSnapshotStore(file, target, keys).restore(MAX_AGE));
+
+        assertNotNull(target.get("id:2643743"));
+        assertNull(target.peek("rome"));
+        assertEquals(0, keys.aliases().size());
+    }
+
+    @Test
+    void ignoresUnknownFormats() throws Exception {
+        Path file = dir.resolve("v1.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(1);
+            out.writeInt(0);
+        }
+        assertEquals(0, new CacheSnapshotStore(file, cache()).restore(MAX_AGE));
+        assertEquals(0, new CacheSnapshotStore(dir.resolve("missing.bin"), cache()).restore(MAX_AGE));
+    }
+}
@@ -0,0 +1,91 @@
+package com.weather.core;
+
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.weather.core.WeatherCacheEngineTest.data;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Deleting a slot moves the last one into the hole and shifts probe chains back; every key left must still be
+ * found with its own data.
+ */
+class CompactWeatherCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CompactWeatherCache cache(int maxSize) {
+        return new CompactWeatherCache(maxSize, 0, CachePolicies.uniform(1, 1), now::get, WeatherMetrics.NOOP);
+    }
+
+    @Test
+    void reclaimedSlotsLeaveTheOthersIntact() {
+        CompactWeatherCache cache = cache(1000);
+        for (int i = 0; i < 200; i += 2) {
+            cache.put("city" + i, data("City" + i, i));
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(90));
+        for (int i = 1; i < 200; i += 2) {
+            cache.put("city" + i, data("City" + i, i));
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(40));
+
+        cache.cleanUp();
+
+        assertEquals(100, cache.size());
+        for (int i = 0; i < 200; i++) {
+            CacheEntry entry = cache.peek("city" + i);
+            if (i % 2 == 0) {
+                assertNull(entry, "city" + i);
+            } else {
+                assertNotNull(entry, "city" + i);
+                assertEquals("City" + i, entry.getData().name());
+                assertEquals(i, entry.getData().datetime());
+            }
+        }
+    }
+
+    @Test
+    void evictedKeysCanBeStoredAgain() {
+        CompactWeatherCache cache = cache(64);
+        for (int i = 0; i < 64; i++) {
+            cache.put("city" + i, data("City" + i, i));
+        }
+        assertEquals(40, cache.evict(40));
+
+        Map<String, CacheEntry> left = cache.entries();
+        assertEquals(24, left.size());
+        left.forEach((key, entry) -> assertEquals("City" + key.substring("city".length()), entry.getData().name()));
+
+        for (int i = 0; i < 64; i++) {
+            cache.put("city" + i, data("City" + i, 1000 + i));
+        }
+        assertEquals(64, cache.size());
+        for (int i = 0; i < 64; i++) {
+            WeatherData data = cache.get("city" + i);
+            assertNotNull(data, "city" + i);
+            assertEquals(1000 + i, data.datetime());
+        }
+    }
+
+    @Test
+    void clearDropsEverythingAndStaysUsable() {
+        CompactWeatherCache cache = cache(16);
+        for (int i = 0; i < 16; i++) {
+            cache.put("city" + i, data("City" + i));
+        }
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.peek("city3"));
+        cache.put("city3", data("City3"));
+        assertEquals("City3", cache.get("city3").name());
+    }
+}
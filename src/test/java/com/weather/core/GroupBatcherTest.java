@@ -0,0 +1,170 @@
+package com.weather.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.weather.api.UpstreamUnavailableException;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.config.HttpTransportConfig;
+import com.weather.config.QuotaConfig;
+import com.weather.config.WeatherApiConfig;
+import com.weather.core.QuotaTracker.Priority;
+import com.weather.infra.HttpTransport;
+import com.weather.infra.OpenWeatherApi;
+import com.weather.infra.WeatherApi;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Batching against a local stand-in for OpenWeather's {@code /weather} and {@code /group} endpoints, which knows
+ * city IDs 1 to 100.
+ */
+class GroupBatcherTest {
+
+    private static final long WINDOW_MILLIS = 50;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private WeatherApi api;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data/2.5/", this::handle);
+        server.start();
+        String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + "/data/2.5/weather";
+        api = new OpenWeatherApi(new WeatherApiConfig("test-key", baseUrl, "metric", "en"), WeatherMetrics.NOOP,
+                new HttpTransport(HttpTransportConfig.defaults()));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchesWithinTheWindowShareOneGroupCall() {
+        GroupBatcher batcher = new GroupBatcher(api, api, null, WINDOW_MILLIS);
+        List<CompletableFuture<WeatherData>> fetches = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            fetches.add(batcher.fetch(id, Priority.BACKGROUND));
+        }
+
+        for (int i = 0; i < fetches.size(); i++) {
+            assertEquals(i + 1, fetches.get(i).join().id());
+        }
+        assertEquals(List.of("/data/2.5/group"), requests);
+    }
+
+    @Test
+    void fullBatchGoesOutWithoutWaitingForTheWindow() {
+        GroupBatcher batcher = new GroupBatcher(api, api, null, WINDOW_MILLIS);
+        List<CompletableFuture<WeatherData>> fetches = new ArrayList<>();
+        for (long id = 1; id <= WeatherApi.MAX_GROUP_SIZE + 3; id++) {
+            fetches.add(batcher.fetch(id, Priority.BACKGROUND));
+        }
+
+        CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).join();
+        assertEquals(List.of("/data/2.5/group", "/data/2.5/group"), requests);
+    }
+
+    @Test
+    void loneFetchUsesTheSingleCityEndpoint() {
+        GroupBatcher batcher = new GroupBatcher(api, api, null, WINDOW_MILLIS);
+
+        assertEquals(7, batcher.fetch(7, Priority.USER).join().id());
+        assertEquals(List.of("/data/2.5/weather"), requests);
+    }
+
+    @Test
+    void idsMissingFromTheResponseFailAlone() {
+        GroupBatcher batcher = new GroupBatcher(api, api, null, WINDOW_MILLIS);
+        CompletableFuture<WeatherData> known = batcher.fetch(3, Priority.BACKGROUND);
+        CompletableFuture<WeatherData> unknown = batcher.fetch(999, Priority.BACKGROUND);
+
+        assertEquals(3, known.join().id());
+        CompletionException e = assertThrows(CompletionException.class, unknown::join);
+        assertInstanceOf(WeatherSdkException.class, FutureUtils.unwrap(e));
+    }
+
+    @Test
+    void eachBatchTakesOneQuotaPermit() {
+        QuotaTracker quota = new QuotaTracker("test-key", new QuotaConfig(0, 1, 0, 1), WeatherMetrics.NOOP);
+        GroupBatcher batcher = new GroupBatcher(api, api, quota, WINDOW_MILLIS);
+        CompletableFuture<WeatherData> first = batcher.fetch(1, Priority.USER);
+        CompletableFuture<WeatherData> second = batcher.fetch(2, Priority.USER);
+        first.join();
+        second.join();
+        assertEquals(1, quota.usedToday());
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> batcher.fetch(3, Priority.USER).join());
+        assertInstanceOf(UpstreamUnavailableException.class, FutureUtils.unwrap(e));
+        assertEquals(1, requests.size());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.add(exchange.getRequestURI().getPath());
+        String ids = param(exchange.getRequestURI().getRawQuery(), "id");
+        String body;
+        int status = 200;
+        if (exchange.getRequestURI().getPath().endsWith("/group")) {
+            StringJoiner list = new StringJoiner(",");
+            int count = 0;
+            for (String id : ids.split("%2C|,")) {
+                long value = Long.parseLong(id);
+                if (value <= 100) {
+                    list.add(payload(value));
+                    count++;
+                }
+            }
+            body = "{\"cnt\":" + count + ",\"list\":[" + list + "]}";
+        } else if (ids != null && Long.parseLong(ids) <= 100) {
+            body = payload(Long.parseLong(ids));
+        } else {
+            status = 404;
+            body = "{\"cod\":\"404\",\"message\":\"city not found\"}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String payload(long id) {
+        return "{\"coord\":{\"lon\":1,\"lat\":2},\"weather\":[{\"main\":\"Clouds\",\"description\":\"few clouds\"}],"
+                + "\"main\":{\"temp\":3,\"feels_like\":2},\"visibility\":10000,\"wind\":{\"speed\":1.5},"
+                + "\"dt\":1700000000,\"sys\":{\"sunrise\":1,\"sunset\":2},\"timezone\":0,"
+                + "\"id\":" + id + ",\"name\":\"City" + id + "\"}";
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+}
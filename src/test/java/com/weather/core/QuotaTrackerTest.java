@@ -0,0 +1,89 @@
+package com.weather.core;
+
+import com.weather.config.QuotaConfig;
+import com.weather.core.QuotaTracker.Priority;
+import com.weather.metrics.WeatherMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuotaTrackerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    // Ten seconds into a UTC day, so minute and day windows start together
+    private final AtomicLong clock = new AtomicLong(20_000 * DAY + 10_000);
+
+    private QuotaTracker tracker(long perMinute, long perDay, double userReserve) {
+        return new QuotaTracker("key", new QuotaConfig(perMinute, perDay, userReserve, 1), WeatherMetrics.NOOP,
+                clock::get);
+    }
+
+    @Test
+    void minuteWindowRollsOverOnTheWallClockMinute() {
+        QuotaTracker quota = tracker(3, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(quota.tryAcquire(Priority.USER));
+        }
+        assertFalse(quota.tryAcquire(Priority.USER));
+        assertEquals(MINUTE - 10_000, quota.millisUntilAvailable(Priority.USER));
+
+        clock.addAndGet(MINUTE - 10_001);
+        assertFalse(quota.tryAcquire(Priority.USER));
+
+        clock.addAndGet(1);
+        assertEquals(0, quota.usedThisMinute());
+        assertTrue(quota.tryAcquire(Priority.USER));
+        assertEquals(1, quota.usedThisMinute());
+    }
+
+    @Test
+    void dayWindowOutlastsMinuteRollovers() {
+        QuotaTracker quota = tracker(10, 4, 0);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(quota.tryAcquire(Priority.USER));
+            clock.addAndGet(MINUTE);
+        }
+        assertFalse(quota.tryAcquire(Priority.USER));
+        assertEquals(4, quota.usedToday());
+        // The minute window that admitted the call is given its permit back
+        assertEquals(0, quota.usedThisMinute());
+
+        clock.addAndGet(DAY);
+        assertTrue(quota.tryAcquire(Priority.USER));
+        assertEquals(1, quota.usedToday());
+    }
+
+    @Test
+    void backgroundCallsLeaveTheUserReserve() {
+        QuotaTracker quota = tracker(10, 0, 0.2);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(quota.tryAcquire(Priority.BACKGROUND));
+        }
+        assertFalse(quota.tryAcquire(Priority.BACKGROUND));
+        assertTrue(quota.millisUntilAvailable(Priority.BACKGROUND) > 0);
+        assertEquals(0, quota.millisUntilAvailable(Priority.USER));
+
+        assertTrue(quota.tryAcquire(Priority.USER));
+        assertTrue(quota.tryAcquire(Priority.USER));
+        assertFalse(quota.tryAcquire(Priority.USER));
+
+        clock.addAndGet(MINUTE);
+        assertTrue(quota.tryAcquire(Priority.BACKGROUND));
+    }
+
+    @Test
+    void unlimitedWindowsAlwaysAdmit() {
+        QuotaTracker quota = tracker(0, 0, 0.5);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(quota.tryAcquire(Priority.BACKGROUND));
+        }
+        assertEquals(0, quota.millisUntilAvailable(Priority.BACKGROUND));
+    }
+}
@@ -0,0 +1,147 @@
+package com.weather.core;
+
+import com.weather.api.CacheType;
+import com.weather.api.WeatherData;
+import com.weather.metrics.WeatherMetrics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Eviction and expiry rules every engine has to follow, driven by a manual ticker.
+ */
+class WeatherCacheEngineTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private WeatherCache cache(CacheType type, int maxSize) {
+        return WeatherCache.create(type, maxSize, 0, CachePolicies.uniform(1, 1), now::get, WeatherMetrics.NOOP);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void staysWithinMaxSize(CacheType type) {
+        WeatherCache cache = cache(type, 3);
+        for (int i = 0; i < 10; i++) {
+            cache.put("city" + i, data("City" + i));
+        }
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get("city9"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void evictsAnEntryNotReadBeforeOneThatWas(CacheType type) {
+        WeatherCache cache = cache(type, 3);
+        cache.put("a", data("A"));
+        cache.put("b", data("B"));
+        cache.put("c", data("C"));
+        assertNotNull(cache.get("a"));
+
+        cache.put("d", data("D"));
+
+        assertNotNull(cache.peek("a"));
+        assertNull(cache.peek("b"));
+        assertNotNull(cache.peek("d"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void explicitEvictRemovesTheRequestedCount(CacheType type) {
+        WeatherCache cache = cache(type, 10);
+        for (int i = 0; i < 5; i++) {
+            cache.put("city" + i, data("City" + i));
+        }
+        assertEquals(2, cache.evict(2));
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.evict(10));
+        assertEquals(0, cache.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void entriesPutAfterClearAreStillEvicted(CacheType type) {
+        WeatherCache cache = cache(type, 3);
+        for (int i = 0; i < 3; i++) {
+            cache.put("old" + i, data("Old" + i));
+        }
+        cache.clear();
+        assertEquals(0, cache.size());
+
+        for (int i = 0; i < 5; i++) {
+            cache.put("new" + i, data("New" + i));
+        }
+        assertEquals(3, cache.size());
+        assertNull(cache.peek("old0"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void expiredEntryMissesButStaysForStaleServing(CacheType type) {
+        WeatherCache cache = cache(type, 10);
+        cache.put("paris", data("Paris"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertNotNull(cache.get("paris"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        CacheEntry entry = cache.getEntry("paris");
+        assertNotNull(entry);
+        assertEquals(true, entry.isExpired(now.get()));
+        assertNotNull(cache.peek("paris"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void cleanUpReclaimsEntriesPastTheStaleWindow(CacheType type) {
+        WeatherCache cache = cache(type, 10);
+        cache.put("paris", data("Paris"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(90));
+        cache.put("rome", data("Rome"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        cache.cleanUp();
+
+        assertNull(cache.peek("paris"));
+        assertNotNull(cache.peek("rome"));
+        assertEquals(1, cache.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheType.class)
+    void refreshReplacesDataAndRestartsTtl(CacheType type) {
+        WeatherCache cache = cache(type, 10);
+        cache.put("paris", data("Paris", 1));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        cache.put("paris", data("Paris", 2));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(50));
+
+        WeatherData fresh = cache.get("paris");
+        assertNotNull(fresh);
+        assertEquals(2, fresh.datetime());
+        assertEquals(1, cache.size());
+    }
+
+    static WeatherData data(String name) {
+        return data(name, 1_700_000_000L);
+    }
+
+    static WeatherData data(String name, long datetime) {
+        return new WeatherData(
+                new WeatherData.Weather("Clouds", "scattered clouds"),
+                new WeatherData.Temperature(281.5, 279.0),
+                10000,
+                new WeatherData.Wind(4.1),
+                datetime,
+                new WeatherData.Sys(1_699_990_000L, 1_700_020_000L),
+                3600,
+                name,
+                0);
+    }
+}
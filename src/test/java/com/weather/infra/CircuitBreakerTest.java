@@ -0,0 +1,95 @@
+package com.weather.infra;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, TimeUnit.MINUTES.toNanos(1), opened::incrementAndGet);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.remainingOpenNanos() > 0);
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(2, TimeUnit.MINUTES.toNanos(1), opened::incrementAndGet);
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    void letsOneProbeThroughOnceTheOpenPeriodHasPassed() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, opened::incrementAndGet);
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+
+        assertTrue(breaker.tryAcquire());
+        // Half-open: every other call waits for the probe's outcome
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, opened::incrementAndGet);
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(1, TimeUnit.MILLISECONDS.toNanos(50), opened::incrementAndGet);
+        breaker.onFailure();
+        assertEquals(1, opened.get());
+
+        sleepPast(50);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(2, opened.get());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void failuresWhileOpenDoNotRestartTheOpenPeriod() {
+        CircuitBreaker breaker = new CircuitBreaker(1, TimeUnit.MINUTES.toNanos(1), opened::incrementAndGet);
+        breaker.onFailure();
+        long remaining = breaker.remainingOpenNanos();
+        breaker.onFailure();
+        assertTrue(breaker.remainingOpenNanos() <= remaining);
+        assertEquals(1, opened.get());
+    }
+
+    private static void sleepPast(long millis) {
+        try {
+            Thread.sleep(millis + 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
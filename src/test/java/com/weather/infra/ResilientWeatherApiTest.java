@@ -0,0 +1,101 @@
+package com.weather.infra;
+
+import com.weather.api.Location;
+import com.weather.api.UpstreamUnavailableException;
+import com.weather.api.WeatherData;
+import com.weather.api.WeatherSdkException;
+import com.weather.config.ResilienceConfig;
+import com.weather.metrics.WeatherMetrics;
+import com.weather.util.FutureUtils;
+import com.weather.util.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientWeatherApiTest {
+
+    private static final ResilienceConfig CONFIG = new ResilienceConfig(true, 2, Duration.ofMinutes(1),
+            Duration.ofMillis(100), Duration.ofMillis(500), 3.0, 2, 1.0, Duration.ofMillis(1), Duration.ofSeconds(60));
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void serverErrorsOpenTheCircuitAndLaterCallsAreRejected() {
+        ResilientWeatherApi api = new ResilientWeatherApi(failing(new HttpStatusException(500, "")), CONFIG,
+                WeatherMetrics.NOOP);
+
+        assertThrows(CompletionException.class, () -> api.getWeatherAsync(Location.city("Paris")).join());
+        assertTrue(api.isCircuitOpen());
+        int before = calls.get();
+
+        Throwable rejected = cause(api.getWeatherAsync(Location.city("Paris")));
+        assertInstanceOf(UpstreamUnavailableException.class, rejected);
+        assertEquals(before, calls.get());
+    }
+
+    @Test
+    void notFoundIsNotRetriedAndLeavesTheCircuitClosed() {
+        ResilientWeatherApi api = new ResilientWeatherApi(failing(new HttpStatusException(404, "")), CONFIG,
+                WeatherMetrics.NOOP);
+
+        assertInstanceOf(HttpStatusException.class, cause(api.getWeatherAsync(Location.city("Nowhere"))));
+        assertEquals(1, calls.get());
+        assertFalse(api.isCircuitOpen());
+    }
+
+    @Test
+    void userCallFailsFastOnRetryAfterLongerThanTheTimeout() {
+        ResilientWeatherApi api = new ResilientWeatherApi(
+                failing(new HttpStatusException(429, "", Duration.ofSeconds(30))), CONFIG, WeatherMetrics.NOOP);
+
+        long start = System.nanoTime();
+        Throwable error = cause(api.interactive().getWeatherAsync(Location.city("Paris")));
+
+        assertInstanceOf(UpstreamUnavailableException.class, error);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+        assertEquals(1, calls.get());
+        assertFalse(api.isCircuitOpen());
+        // The backoff applies to every later call on the key, background ones included
+        assertInstanceOf(UpstreamUnavailableException.class, cause(api.getWeatherAsync(Location.city("Rome"))));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void refusedRetryPermitFailsWithoutAnotherCall() {
+        ResilientWeatherApi api = new ResilientWeatherApi(failing(new HttpStatusException(503, "")), CONFIG,
+                WeatherMetrics.NOOP);
+        api.retryPermits(() -> false);
+
+        assertInstanceOf(UpstreamUnavailableException.class, cause(api.getWeatherAsync(Location.city("Paris"))));
+        assertEquals(1, calls.get());
+    }
+
+    private WeatherApi failing(Exception error) {
+        return new WeatherApi() {
+            @Override
+            public WeatherData getWeather(String city) throws WeatherSdkException {
+                throw new WeatherSdkException("unused");
+            }
+
+            @Override
+            public CompletableFuture<WeatherData> getWeatherAsync(Location location) {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(error);
+            }
+        };
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        return FutureUtils.unwrap(e);
+    }
+}
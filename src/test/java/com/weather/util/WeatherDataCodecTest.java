@@ -0,0 +1,69 @@
+package com.weather.util;
+
+import com.weather.api.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeatherDataCodecTest {
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        WeatherData data = new WeatherData(
+                new WeatherData.Weather("Rain", "light rain"),
+                new WeatherData.Temperature(-3.25, -7.5),
+                8500,
+                new WeatherData.Wind(12.75),
+                1_700_000_123L,
+                new WeatherData.Sys(1_699_990_000L, 1_700_020_000L),
+                -18000,
+                "São Paulo",
+                3448439);
+
+        assertEquals(data, decode(encode(data)));
+    }
+
+    @Test
+    void roundTripsMissingStrings() throws IOException {
+        WeatherData data = new WeatherData(
+                new WeatherData.Weather(null, null),
+                new WeatherData.Temperature(0, 0),
+                0,
+                new WeatherData.Wind(0),
+                0,
+                new WeatherData.Sys(0, 0),
+                0,
+                null);
+
+        assertEquals(data, decode(encode(data)));
+    }
+
+    @Test
+    void truncatedInputFails() throws IOException {
+        byte[] bytes = encode(new WeatherData(new WeatherData.Weather("Clear", "clear sky"),
+                new WeatherData.Temperature(1, 1), 1, new WeatherData.Wind(1), 1, new WeatherData.Sys(1, 1), 0, "Oslo"));
+
+        assertThrows(EOFException.class, () -> decode(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    private static byte[] encode(WeatherData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            WeatherDataCodec.write(out, data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static WeatherData decode(byte[] bytes) throws IOException {
+        return WeatherDataCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}